@@ -99,18 +99,26 @@ public class CreateAccount extends AppCompatActivity{
                     user = new User(username, password, bio);
 
                     // check if we can add it to the database
-                    boolean success = db.addUser(user);
-
-                    if (success) {
-                        // account was created successfully
-                        CurrentUser.set(user);
-                        // switch to today view
-                        Intent intent = new Intent(view.getContext(), TodayActivity.class);
-                        startActivity(intent);
-                    } else {
-                        // account already exists alert
-                        Toast.makeText(getApplicationContext(), "Username already exists\nPlease try a different option!", Toast.LENGTH_LONG).show();
-                    }
+                    createButton.setEnabled(false);
+                    db.addUser(user).addOnCompleteListener(CreateAccount.this, task -> {
+                        createButton.setEnabled(true);
+                        if (!task.isSuccessful()) {
+                            // the account could not be created, e.g. offline
+                            Toast.makeText(getApplicationContext(), "Could not create account\nPlease check your connection and try again", Toast.LENGTH_LONG).show();
+                        } else if (task.getResult()) {
+                            // account was created successfully, the session's
+                            // token is saved when the main screen checks it
+                            Session.save(getApplicationContext(), username, null);
+                            UserStore.getInstance().start(user);
+                            // switch to today view, back should not return here
+                            Intent intent = new Intent(view.getContext(), MainActivity.class);
+                            startActivity(intent);
+                            finish();
+                        } else {
+                            // account already exists alert
+                            Toast.makeText(getApplicationContext(), "Username already exists\nPlease try a different option!", Toast.LENGTH_LONG).show();
+                        }
+                    });
                 }
             }
         });
@@ -0,0 +1,123 @@
+/*
+ *  Credentials
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import android.util.Base64;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * A user's login credentials: a random salt and the password hashed with it.
+ * They are kept in their own small document in the Credentials collection,
+ * so checking a login reads a few hundred bytes instead of the whole user,
+ * and the password itself is never stored.
+ */
+public class Credentials {
+    // constants
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA1";
+    private static final int ITERATIONS = 10000;
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final SecureRandom random = new SecureRandom();
+
+    private String salt; // Base64
+    private String hash; // Base64
+    private int iterations;
+
+    /**
+     * Empty constructor for Firestore compatibility
+     */
+    public Credentials() {}
+
+    /**
+     * Makes the credentials for a password, with a new random salt. Hashing
+     * is deliberately slow, so this should not run on the main thread.
+     * @param password the password
+     * @return the credentials
+     */
+    public static Credentials of(String password) {
+        byte[] saltBytes = new byte[SALT_BYTES];
+        random.nextBytes(saltBytes);
+        Credentials credentials = new Credentials();
+        credentials.salt = Base64.encodeToString(saltBytes, Base64.NO_WRAP);
+        credentials.iterations = ITERATIONS;
+        credentials.hash = Base64.encodeToString(hash(password, saltBytes, ITERATIONS), Base64.NO_WRAP);
+        return credentials;
+    }
+
+    /**
+     * Checks a password against these credentials. Like of(), this should
+     * not run on the main thread.
+     * @param password the entered password
+     * @return true if the password is the one the credentials were made of
+     */
+    public boolean matches(String password) {
+        byte[] saltBytes = Base64.decode(salt, Base64.NO_WRAP);
+        byte[] expected = Base64.decode(hash, Base64.NO_WRAP);
+        // compared in constant time, so the time taken gives nothing away
+        return MessageDigest.isEqual(expected, hash(password, saltBytes, iterations));
+    }
+
+    /**
+     * Hashes a password with a salt.
+     * @param password the password
+     * @param salt the salt
+     * @param iterations how many times the hash is applied
+     * @return the hash
+     */
+    private static byte[] hash(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            // every Android version has this algorithm
+            throw new IllegalStateException(e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    /**
+     * Salt getter
+     * @return the salt, Base64 encoded
+     */
+    public String getSalt() { return salt; }
+
+    /**
+     * Hash getter
+     * @return the hashed password, Base64 encoded
+     */
+    public String getHash() { return hash; }
+
+    /**
+     * Iterations getter
+     * @return how many times the password was hashed
+     */
+    public int getIterations() { return iterations; }
+}
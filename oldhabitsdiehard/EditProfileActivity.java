@@ -23,7 +23,6 @@
 
 package com.example.oldhabitsdiehard;
 
-import android.content.Intent;
 import android.os.Build;
 import android.os.Bundle;
 import android.view.View;
@@ -56,7 +55,7 @@ public class EditProfileActivity extends AppCompatActivity {
         setContentView(R.layout.edit_profile);
 
         // get the current user
-        user = CurrentUser.get();
+        user = UserStore.getInstance().get();
 
         // set up edit texts and buttons
         EditText usernameBox = findViewById(R.id.username_edit);
@@ -76,15 +75,14 @@ public class EditProfileActivity extends AppCompatActivity {
         // listener for the back button
         backProfileButton.setOnClickListener(new View.OnClickListener() {
             /**
-             * When the back button is pressed, the app switches back to the
-             * Profile activity.
+             * When the back button is pressed, the app returns to the
+             * Profile screen.
              * @param view the back button
              */
             @Override
             public void onClick(View view) {
-                // create profile intent and start it
-                Intent intent = new Intent(view.getContext(), ProfileActivity.class);
-                startActivity(intent);
+                // the profile screen is still open underneath
+                finish();
             }
         });
 
@@ -97,9 +95,10 @@ public class EditProfileActivity extends AppCompatActivity {
              */
             @Override
             public void onClick(View view) {
-                // update the bio and username
-                user.setBio(bioBox.getText().toString());
-                user.setUsername(usernameBox.getText().toString());
+                // update the bio, the username is the user's document id
+                // and cannot change
+                String bio = bioBox.getText().toString();
+                UserStore.getInstance().mutate(changed -> changed.setBio(bio));
                 // print profile updated message
                 Toast.makeText(getApplicationContext(), "Profile updated!", Toast.LENGTH_LONG).show();
 
@@ -124,32 +123,48 @@ public class EditProfileActivity extends AppCompatActivity {
                 String newPasswordString = newPassword.getText().toString();
                 // get the confirmed password
                 String confirmPasswordString = confirmPassword.getText().toString();
-                // check if the current password is correct
-                if (currentPasswordString.equals(user.getPassword())) {
-                    // check if the new and confirmed passwords are equal
-                    if (newPasswordString.equals(confirmPasswordString)) {
-                        // check if the current and new passwords are equal
-                        if (currentPasswordString.equals(newPasswordString)) {
-                            // user entered the same password
-                            Toast.makeText(getApplicationContext(), "You cannot set new password to current password.", Toast.LENGTH_LONG).show();
-                        // check password length
-                        } else if (newPasswordString.length() < minPasswordLength) {
-                            // user entered a password that is too short
-                            Toast.makeText(getApplicationContext(), "New password not valid", Toast.LENGTH_LONG).show();
-                        } else {
-                            // update the password and print success message
-                            user.setPassword(newPasswordString);
-                            Toast.makeText(getApplicationContext(), "Password successfully changed!", Toast.LENGTH_LONG).show();
-                        }
-                    } else {
-                        // the new and confirmed passwords don't match
-                        Toast.makeText(getApplicationContext(), "New password not confirmed", Toast.LENGTH_LONG).show();
-                    }
-                } else{
-                    // user entered wrong password
-                    Toast.makeText(getApplicationContext(), "Invalid current password", Toast.LENGTH_LONG).show();
+                // check the new password before the current one is checked,
+                // which reads the user's credentials
+                if (!newPasswordString.equals(confirmPasswordString)) {
+                    // the new and confirmed passwords don't match
+                    Toast.makeText(getApplicationContext(), "New password not confirmed", Toast.LENGTH_LONG).show();
+                } else if (currentPasswordString.equals(newPasswordString)) {
+                    // user entered the same password
+                    Toast.makeText(getApplicationContext(), "You cannot set new password to current password.", Toast.LENGTH_LONG).show();
+                } else if (newPasswordString.length() < minPasswordLength) {
+                    // user entered a password that is too short
+                    Toast.makeText(getApplicationContext(), "New password not valid", Toast.LENGTH_LONG).show();
+                } else {
+                    changePassword(currentPasswordString, newPasswordString);
                 }
             }
         });
     }
+
+    /**
+     * Changes the user's password if the current password is correct.
+     * @param currentPassword the entered current password
+     * @param newPassword the new password, already checked
+     */
+    private void changePassword(String currentPassword, String newPassword) {
+        UserDatabase db = UserDatabase.getInstance();
+        String username = user.getUsername();
+        db.checkCredentials(username, currentPassword).addOnCompleteListener(checked -> {
+            if (!checked.isSuccessful() || checked.getResult() == null) {
+                // user entered wrong password
+                Toast.makeText(getApplicationContext(), "Invalid current password", Toast.LENGTH_LONG).show();
+                return;
+            }
+            // update the password and print success message
+            db.setPassword(username, newPassword).addOnCompleteListener(set -> {
+                if (set.isSuccessful()) {
+                    // keep this device logged in, the new salt ends other sessions
+                    Session.save(getApplicationContext(), username, set.getResult().getSalt());
+                    Toast.makeText(getApplicationContext(), "Password successfully changed!", Toast.LENGTH_LONG).show();
+                } else {
+                    Toast.makeText(getApplicationContext(), "Password could not be changed", Toast.LENGTH_LONG).show();
+                }
+            });
+        });
+    }
 }
@@ -0,0 +1,301 @@
+/*
+ *  EventGridIndex
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Spatial index of located habit events for the events map.
+ *
+ * The world is divided into a grid at every level from 0 (one cell) down to
+ * MAX_LEVEL, where each level halves the cell size. Events are sorted by the
+ * Morton (Z-order) code of their cell at the finest level, so every cell at
+ * every level is a contiguous range of the sorted array. Together with prefix
+ * sums of the coordinates this gives the count and centroid of any cell with
+ * two binary searches, and a viewport is clustered by only visiting the cells
+ * that cover it, no matter how many events there are.
+ * The index is immutable once built, so it can be queried from any thread.
+ */
+public class EventGridIndex {
+    // constants
+    public static final int MAX_LEVEL = 20;
+    private static final int MAX_QUERY_CELLS = 4096;
+
+    private final Entry[] entries;
+    private final long[] codes;
+    private final double[] latSums;
+    private final double[] lonSums;
+
+    /**
+     * A located habit event and the user it belongs to.
+     */
+    public static class Entry {
+        private final HabitEvent event;
+        private final String owner;
+        private long code;
+
+        /**
+         * Constructor
+         * @param event the habit event, which must have a location
+         * @param owner the username of the user the event belongs to
+         */
+        public Entry(HabitEvent event, String owner) {
+            this.event = event;
+            this.owner = owner;
+        }
+
+        /**
+         * Event getter
+         * @return the habit event
+         */
+        public HabitEvent getEvent() { return event; }
+
+        /**
+         * Owner getter
+         * @return the username of the user the event belongs to
+         */
+        public String getOwner() { return owner; }
+    }
+
+    /**
+     * A non-empty grid cell returned from a query.
+     */
+    public static class Cell {
+        private final int level;
+        private final long key;
+        private final int from;
+        private final int to;
+        private final double lat;
+        private final double lon;
+
+        /**
+         * Constructor
+         * @param level the level of this cell
+         * @param key the Morton code of this cell at its level
+         * @param from the index of the first event in this cell
+         * @param to one past the index of the last event in this cell
+         * @param lat the centroid latitude
+         * @param lon the centroid longitude
+         */
+        Cell(int level, long key, int from, int to, double lat, double lon) {
+            this.level = level;
+            this.key = key;
+            this.from = from;
+            this.to = to;
+            this.lat = lat;
+            this.lon = lon;
+        }
+
+        /**
+         * Gets a key that identifies this cell across all levels.
+         * @return the key
+         */
+        public long getKey() { return ((long) level << 48) | key; }
+
+        /**
+         * Count getter
+         * @return the number of events in this cell
+         */
+        public int getCount() { return to - from; }
+
+        /**
+         * Gets the average latitude of the events in this cell.
+         * @return the centroid latitude
+         */
+        public double getLat() { return lat; }
+
+        /**
+         * Gets the average longitude of the events in this cell.
+         * @return the centroid longitude
+         */
+        public double getLon() { return lon; }
+    }
+
+    /**
+     * Builds the index. Events without a location are skipped.
+     * @param all the events to index
+     */
+    public EventGridIndex(List<Entry> all) {
+        List<Entry> located = new ArrayList<Entry>();
+        for (Entry entry : all) {
+            HabitEvent event = entry.getEvent();
+            if (event.getHasLocation()) {
+                entry.code = morton(cellX(event.getLon(), MAX_LEVEL), cellY(event.getLat(), MAX_LEVEL));
+                located.add(entry);
+            }
+        }
+        Collections.sort(located, (a, b) -> Long.compare(a.code, b.code));
+
+        int n = located.size();
+        entries = located.toArray(new Entry[n]);
+        codes = new long[n];
+        latSums = new double[n + 1];
+        lonSums = new double[n + 1];
+        for (int i = 0; i < n; i++) {
+            codes[i] = entries[i].code;
+            latSums[i + 1] = latSums[i] + entries[i].getEvent().getLat();
+            lonSums[i + 1] = lonSums[i] + entries[i].getEvent().getLon();
+        }
+    }
+
+    /**
+     * Gets the number of located events in the index.
+     * @return the number of events
+     */
+    public int size() { return entries.length; }
+
+    /**
+     * Gets the events in a cell.
+     * @param cell a cell returned by query
+     * @return the events in the cell
+     */
+    public List<Entry> getEntries(Cell cell) {
+        return Arrays.asList(entries).subList(cell.from, cell.to);
+    }
+
+    /**
+     * Gets the non-empty cells that overlap a bounding box. Only the cells
+     * covering the box are visited; if the box covers too many cells at the
+     * requested level a coarser level is used.
+     * @param level the grid level, 0 to MAX_LEVEL
+     * @param south the southern edge of the box
+     * @param west the western edge of the box
+     * @param north the northern edge of the box
+     * @param east the eastern edge of the box, less than west if the box
+     *             crosses the antimeridian
+     * @return the cells in the box
+     */
+    public List<Cell> query(int level, double south, double west, double north, double east) {
+        level = Math.max(0, Math.min(MAX_LEVEL, level));
+        int columns;
+        int rows;
+        while (true) {
+            int width = 1 << level;
+            int minX = cellX(west, level);
+            int maxX = cellX(east, level);
+            columns = (maxX >= minX) ? maxX - minX + 1 : (width - minX) + maxX + 1;
+            rows = cellY(north, level) - cellY(south, level) + 1;
+            if ((long) columns * rows <= MAX_QUERY_CELLS || level == 0) {
+                break;
+            }
+            level--;
+        }
+
+        List<Cell> result = new ArrayList<Cell>();
+        if (entries.length == 0) {
+            return result;
+        }
+        int width = 1 << level;
+        int minX = cellX(west, level);
+        int minY = cellY(south, level);
+        int shift = 2 * (MAX_LEVEL - level);
+        for (int i = 0; i < columns; i++) {
+            int x = (minX + i) % width;
+            for (int y = minY; y < minY + rows; y++) {
+                // every event in this cell has a code in [key << shift, (key + 1) << shift)
+                long key = morton(x, y);
+                int from = lowerBound(key << shift);
+                int to = lowerBound((key + 1) << shift);
+                if (to > from) {
+                    int count = to - from;
+                    result.add(new Cell(level, key, from, to,
+                            (latSums[to] - latSums[from]) / count,
+                            (lonSums[to] - lonSums[from]) / count));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the first event whose code is at least the given code.
+     * @param code the code to search for
+     * @return the index of the first such event
+     */
+    private int lowerBound(long code) {
+        int lo = 0;
+        int hi = codes.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (codes[mid] < code) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Gets the grid column of a longitude.
+     * @param lon the longitude
+     * @param level the grid level
+     * @return the column
+     */
+    private static int cellX(double lon, int level) {
+        int width = 1 << level;
+        int x = (int) Math.floor((lon + 180.0) / 360.0 * width);
+        return Math.max(0, Math.min(width - 1, x));
+    }
+
+    /**
+     * Gets the grid row of a latitude.
+     * @param lat the latitude
+     * @param level the grid level
+     * @return the row
+     */
+    private static int cellY(double lat, int level) {
+        int height = 1 << level;
+        int y = (int) Math.floor((lat + 90.0) / 180.0 * height);
+        return Math.max(0, Math.min(height - 1, y));
+    }
+
+    /**
+     * Interleaves the bits of a column and row into a Morton code.
+     * @param x the column
+     * @param y the row
+     * @return the Morton code
+     */
+    private static long morton(int x, int y) {
+        return spread(x) | (spread(y) << 1);
+    }
+
+    /**
+     * Spreads the bits of a value out so there is a zero between each bit.
+     * @param v the value
+     * @return the spread value
+     */
+    private static long spread(int v) {
+        long x = v & 0xffffffffL;
+        x = (x | (x << 16)) & 0x0000ffff0000ffffL;
+        x = (x | (x << 8)) & 0x00ff00ff00ff00ffL;
+        x = (x | (x << 4)) & 0x0f0f0f0f0f0f0f0fL;
+        x = (x | (x << 2)) & 0x3333333333333333L;
+        x = (x | (x << 1)) & 0x5555555555555555L;
+        return x;
+    }
+}
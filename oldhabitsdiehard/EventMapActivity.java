@@ -0,0 +1,439 @@
+/*
+ *  EventMapActivity
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.widget.CheckBox;
+import android.widget.CompoundButton;
+import android.widget.Toast;
+
+import androidx.annotation.RequiresApi;
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.google.android.gms.maps.CameraUpdateFactory;
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.OnMapReadyCallback;
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import com.google.android.gms.maps.model.BitmapDescriptorFactory;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import com.google.android.gms.maps.model.Marker;
+import com.google.android.gms.maps.model.MarkerOptions;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Activity showing the locations of all of the current user's habit events on
+ * a map, and optionally the public habit events of the users they follow.
+ * Nearby events are grouped into clusters, and only the events inside the
+ * visible part of the map are turned into markers.
+ */
+public class EventMapActivity extends AppCompatActivity implements OnMapReadyCallback,
+        GoogleMap.OnCameraIdleListener, GoogleMap.OnMarkerClickListener {
+    private User user;
+    private UserDatabase db;
+    private MyMapView mapView;
+    private GoogleMap map;
+    private EventGridIndex ownIndex;
+    private EventGridIndex followingIndex;
+    private boolean showFollowing;
+    private final Map<String, Marker> markers = new HashMap<String, Marker>();
+    private final Map<String, BitmapDescriptor> clusterIcons = new HashMap<String, BitmapDescriptor>();
+    private final ExecutorService background = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private int generation;
+
+    // constants
+    private static final String MAPVIEW_BUNDLE_KEY = "MapViewBundleKey";
+    private static final int MAX_CLUSTER_ZOOM = 17;
+
+    /**
+     * Sets up the map and starts indexing the user's events.
+     * @param savedInstanceState the state of the app
+     */
+    @RequiresApi(api = Build.VERSION_CODES.O)
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.event_map_view);
+
+        // get the current user
+        user = UserStore.getInstance().get();
+        db = UserDatabase.getInstance();
+
+        // set up the map
+        Bundle mapViewBundle = null;
+        if (savedInstanceState != null) {
+            mapViewBundle = savedInstanceState.getBundle(MAPVIEW_BUNDLE_KEY);
+        }
+        mapView = findViewById(R.id.event_map);
+        mapView.onCreate(mapViewBundle);
+        mapView.getMapAsync(this);
+
+        // index the user's own events off the main thread
+        String username = user.getUsername();
+        List<EventGridIndex.Entry> own = new ArrayList<EventGridIndex.Entry>();
+        for (HabitEvent event : user.getHabitEvents()) {
+            own.add(new EventGridIndex.Entry(event, username));
+        }
+        background.execute(() -> {
+            EventGridIndex index = new EventGridIndex(own);
+            mainHandler.post(() -> {
+                ownIndex = index;
+                refreshMarkers();
+            });
+        });
+
+        // toggle for showing the events of followed users
+        CheckBox followingBox = findViewById(R.id.show_following);
+        followingBox.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
+            /**
+             * Shows or hides the events of followed users, loading them the
+             * first time.
+             * @param button the checkbox
+             * @param checked whether the checkbox is checked
+             */
+            @Override
+            public void onCheckedChanged(CompoundButton button, boolean checked) {
+                showFollowing = checked;
+                if (checked && followingIndex == null) {
+                    loadFollowing();
+                } else {
+                    refreshMarkers();
+                }
+            }
+        });
+    }
+
+    /**
+     * Loads the public habit events of every followed user and indexes them,
+     * off the main thread. The followed users are read from the Following
+     * collection first, then all of their public profiles are read at once,
+     * and then the events of each user's public habits. Nothing private of
+     * the followed users is read. The result is dropped if the activity was
+     * closed in the meantime.
+     */
+    @RequiresApi(api = Build.VERSION_CODES.O)
+    private void loadFollowing() {
+        // follows from before the Following collection may not be copied yet
+        List<String> oldFollowing = (user.getFollowing() == null) ? new ArrayList<String>() : new ArrayList<String>(user.getFollowing());
+        // the owner of each list of events, in the same order
+        List<String> owners = new ArrayList<String>();
+        db.getFollowing(user.getUsername()).onSuccessTask(edges -> {
+            Set<String> following = new HashSet<String>(edges);
+            following.addAll(oldFollowing);
+            return db.getProfiles(following);
+        }).onSuccessTask(profiles -> {
+            // only events of public habits may be shown to other users
+            List<Task<List<HabitEvent>>> reads = new ArrayList<Task<List<HabitEvent>>>();
+            for (PublicProfile profile : profiles.values()) {
+                List<String> publicHabits = new ArrayList<String>();
+                for (PublicHabit habit : profile.getPublicHabits()) {
+                    publicHabits.add(habit.getTitle());
+                }
+                owners.add(profile.getUsername());
+                reads.add(db.getHabitEvents(profile.getUsername(), publicHabits));
+            }
+            return Tasks.<List<HabitEvent>>whenAllSuccess(reads);
+        }).addOnSuccessListener(this, events -> {
+            if (isFinishing() || background.isShutdown()) {
+                return;
+            }
+            background.execute(() -> {
+                List<EventGridIndex.Entry> entries = new ArrayList<EventGridIndex.Entry>();
+                for (int i = 0; i < events.size(); i++) {
+                    for (HabitEvent event : events.get(i)) {
+                        entries.add(new EventGridIndex.Entry(event, owners.get(i)));
+                    }
+                }
+                EventGridIndex index = new EventGridIndex(entries);
+                mainHandler.post(() -> {
+                    followingIndex = index;
+                    refreshMarkers();
+                });
+            });
+        }).addOnFailureListener(this, e -> {
+            // unchecked so checking the box again retries the load
+            Toast.makeText(getApplicationContext(), "Could not load followed users' events", Toast.LENGTH_LONG).show();
+            CheckBox followingBox = findViewById(R.id.show_following);
+            followingBox.setChecked(false);
+        });
+    }
+
+    /**
+     * Saves the map state when the map is ready and listens for camera moves.
+     * @param googleMap the GoogleMap object
+     */
+    @Override
+    public void onMapReady(GoogleMap googleMap) {
+        map = googleMap;
+        map.getUiSettings().setZoomControlsEnabled(true);
+        map.setOnCameraIdleListener(this);
+        map.setOnMarkerClickListener(this);
+        refreshMarkers();
+    }
+
+    /**
+     * Updates the markers once the user stops moving the map.
+     */
+    @Override
+    public void onCameraIdle() {
+        refreshMarkers();
+    }
+
+    /**
+     * Clusters the visible part of the map off the main thread, then swaps in
+     * the resulting markers. Markers that are still visible are kept.
+     */
+    private void refreshMarkers() {
+        if (map == null || ownIndex == null) {
+            return;
+        }
+        LatLngBounds bounds = map.getProjection().getVisibleRegion().latLngBounds;
+        int zoom = (int) map.getCameraPosition().zoom;
+        EventGridIndex own = ownIndex;
+        EventGridIndex others = showFollowing ? followingIndex : null;
+        int current = ++generation;
+
+        background.execute(() -> {
+            // a cell about a quarter of a map tile wide is one cluster
+            int level = zoom + 2;
+            Map<String, MarkerOptions> wanted = new HashMap<String, MarkerOptions>();
+            addClusters(wanted, own, level, zoom, bounds, "own");
+            if (others != null) {
+                addClusters(wanted, others, level, zoom, bounds, "following");
+            }
+            mainHandler.post(() -> {
+                if (current != generation || map == null) {
+                    // the map moved again while this was running
+                    return;
+                }
+                applyMarkers(wanted);
+            });
+        });
+    }
+
+    /**
+     * Turns the cells of an index in the visible area into marker options.
+     * Clusters have no snippet, single events do.
+     * @param wanted the marker options, keyed by cell or event
+     * @param index the index to query
+     * @param level the grid level to cluster at
+     * @param zoom the map zoom level
+     * @param bounds the visible area
+     * @param source distinguishes the keys of different indexes
+     */
+    private void addClusters(Map<String, MarkerOptions> wanted, EventGridIndex index, int level, int zoom,
+                             LatLngBounds bounds, String source) {
+        List<EventGridIndex.Cell> cells = index.query(level, bounds.southwest.latitude, bounds.southwest.longitude,
+                bounds.northeast.latitude, bounds.northeast.longitude);
+        for (EventGridIndex.Cell cell : cells) {
+            if (cell.getCount() == 1 || zoom >= MAX_CLUSTER_ZOOM) {
+                // show every event in the cell on its own
+                List<EventGridIndex.Entry> entries = index.getEntries(cell);
+                for (int i = 0; i < entries.size(); i++) {
+                    EventGridIndex.Entry entry = entries.get(i);
+                    HabitEvent event = entry.getEvent();
+                    String date = event.getYear() + "-" + event.getMonth() + "-" + event.getDay();
+                    MarkerOptions options = new MarkerOptions()
+                            .position(new LatLng(event.getLat(), event.getLon()))
+                            .title(event.getHabit())
+                            .snippet(entry.getOwner() + ", " + date);
+                    if (!source.equals("own")) {
+                        options.icon(BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_AZURE));
+                    }
+                    wanted.put(source + ":" + cell.getKey() + ":" + i, options);
+                }
+            } else {
+                // show the cell as a cluster
+                wanted.put(source + ":" + cell.getKey(), new MarkerOptions()
+                        .position(new LatLng(cell.getLat(), cell.getLon()))
+                        .title(String.valueOf(cell.getCount())));
+            }
+        }
+    }
+
+    /**
+     * Removes markers that are no longer wanted and adds new ones.
+     * @param wanted the marker options, keyed by cell or event
+     */
+    private void applyMarkers(Map<String, MarkerOptions> wanted) {
+        // remove markers that left the view or were merged into a cluster
+        List<String> stale = new ArrayList<String>();
+        for (String key : markers.keySet()) {
+            if (!wanted.containsKey(key)) {
+                stale.add(key);
+            }
+        }
+        for (String key : stale) {
+            markers.remove(key).remove();
+        }
+
+        // add markers that are new
+        for (Map.Entry<String, MarkerOptions> entry : wanted.entrySet()) {
+            if (markers.containsKey(entry.getKey())) {
+                continue;
+            }
+            MarkerOptions options = entry.getValue();
+            boolean cluster = options.getSnippet() == null;
+            if (cluster) {
+                options.icon(clusterIcon(options.getTitle()));
+            }
+            Marker marker = map.addMarker(options);
+            marker.setTag(cluster);
+            markers.put(entry.getKey(), marker);
+        }
+    }
+
+    /**
+     * Gets the icon for a cluster, drawing it the first time it is needed.
+     * @param count the number of events in the cluster
+     * @return the icon
+     */
+    private BitmapDescriptor clusterIcon(String count) {
+        String label = (count.length() > 3) ? "999+" : count;
+        BitmapDescriptor icon = clusterIcons.get(label);
+        if (icon != null) {
+            return icon;
+        }
+
+        int size = (int) (40 * getResources().getDisplayMetrics().density);
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        Paint circle = new Paint(Paint.ANTI_ALIAS_FLAG);
+        circle.setColor(getResources().getColor(R.color.blue));
+        canvas.drawCircle(size / 2f, size / 2f, size / 2f, circle);
+        Paint text = new Paint(Paint.ANTI_ALIAS_FLAG);
+        text.setColor(getResources().getColor(R.color.blueLight));
+        text.setTextAlign(Paint.Align.CENTER);
+        text.setTextSize(size / 3f);
+        canvas.drawText(label, size / 2f, size / 2f - (text.descent() + text.ascent()) / 2, text);
+
+        icon = BitmapDescriptorFactory.fromBitmap(bitmap);
+        clusterIcons.put(label, icon);
+        return icon;
+    }
+
+    /**
+     * Zooms in on a cluster when it is clicked. Event markers show their info
+     * window as usual.
+     * @param marker the marker that was clicked
+     * @return true if the click was handled
+     */
+    @Override
+    public boolean onMarkerClick(Marker marker) {
+        if (Boolean.TRUE.equals(marker.getTag())) {
+            map.animateCamera(CameraUpdateFactory.newLatLngZoom(marker.getPosition(),
+                    map.getCameraPosition().zoom + 2));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Saves the map view state.
+     * @param outState a bundle representing the new state
+     */
+    @Override
+    public void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        Bundle mapViewBundle = outState.getBundle(MAPVIEW_BUNDLE_KEY);
+        if (mapViewBundle == null) {
+            mapViewBundle = new Bundle();
+            outState.putBundle(MAPVIEW_BUNDLE_KEY, mapViewBundle);
+        }
+        mapView.onSaveInstanceState(mapViewBundle);
+    }
+
+    /**
+     * Defines what to do when the activity is started.
+     */
+    @Override
+    protected void onStart() {
+        super.onStart();
+        mapView.onStart();
+    }
+
+    /**
+     * Defines what the do when the activity is resumed.
+     */
+    @Override
+    protected void onResume() {
+        super.onResume();
+        mapView.onResume();
+    }
+
+    /**
+     * Defines what to do when the activity is paused.
+     */
+    @Override
+    protected void onPause() {
+        mapView.onPause();
+        super.onPause();
+    }
+
+    /**
+     * Defines what to do when the activity is stopped.
+     */
+    @Override
+    protected void onStop() {
+        super.onStop();
+        mapView.onStop();
+    }
+
+    /**
+     * Defines what to do when the activity is destroyed.
+     */
+    @Override
+    protected void onDestroy() {
+        background.shutdownNow();
+        mapView.onDestroy();
+        map = null;
+        super.onDestroy();
+    }
+
+    /**
+     * Defines what to do when the activity is low on memory.
+     */
+    @Override
+    public void onLowMemory() {
+        super.onLowMemory();
+        mapView.onLowMemory();
+    }
+}
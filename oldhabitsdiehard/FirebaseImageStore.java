@@ -0,0 +1,83 @@
+/*
+ *  FirebaseImageStore
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.storage.ListResult;
+import com.google.firebase.storage.StorageMetadata;
+import com.google.firebase.storage.StorageReference;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ImageStore backed by Firebase Storage.
+ */
+public class FirebaseImageStore implements ImageStore {
+    private final StorageReference root;
+
+    /**
+     * Constructor
+     * @param root the root of the storage bucket
+     */
+    public FirebaseImageStore(StorageReference root) {
+        this.root = root;
+    }
+
+    /**
+     * Lists every image under a prefix, fetching the metadata of each image
+     * in parallel to get its size.
+     * @param prefix the prefix to list
+     * @return the images under the prefix
+     * @throws Exception if the bucket could not be listed
+     */
+    @Override
+    public List<StoredImage> list(String prefix) throws Exception {
+        ListResult result = Tasks.await(root.child(prefix).listAll());
+
+        // start every metadata request before waiting on any of them
+        List<Task<StorageMetadata>> metadataTasks = new ArrayList<Task<StorageMetadata>>();
+        for (StorageReference item : result.getItems()) {
+            metadataTasks.add(item.getMetadata());
+        }
+
+        List<StoredImage> images = new ArrayList<StoredImage>();
+        for (Task<StorageMetadata> task : metadataTasks) {
+            StorageMetadata metadata = Tasks.await(task);
+            images.add(new StoredImage(metadata.getPath(), metadata.getSizeBytes(), metadata.getUpdatedTimeMillis()));
+        }
+        return images;
+    }
+
+    /**
+     * Deletes an image from the bucket.
+     * @param ref the reference string of the image
+     * @throws Exception if the image could not be deleted
+     */
+    @Override
+    public void delete(String ref) throws Exception {
+        Tasks.await(root.child(ref).delete());
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ *  FollowPager
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pages through a list of users from an edge collection, e.g. a user's
+ * followers, in order of username. Pages are loaded as the list scrolls near
+ * the end of what is loaded, so opening the list of a user with many
+ * followers only reads one page.
+ * All methods must be called on the main thread.
+ */
+public class FollowPager {
+    // constants
+    public static final int PAGE_SIZE = 50;
+    private static final int PREFETCH_DISTANCE = PAGE_SIZE / 2;
+
+    private final Query query;
+    private final Listener listener;
+    private final List<String> usernames = new ArrayList<String>();
+    private DocumentSnapshot last;
+    private boolean hasMore = true;
+    private boolean loading = false;
+    private int generation = 0;
+
+    /**
+     * Callback interface for changes to the loaded users.
+     */
+    public interface Listener {
+        void onUsersChanged(List<String> usernames);
+        void onLoadFailed(Exception e);
+    }
+
+    /**
+     * Constructor
+     * @param query the edges to page through, ordered by username
+     * @param listener notified whenever the loaded users change
+     */
+    public FollowPager(Query query, Listener listener) {
+        this.query = query;
+        this.listener = listener;
+    }
+
+    /**
+     * Drops everything loaded and loads the first page again.
+     */
+    public void refresh() {
+        // results of loads already started are ignored
+        generation++;
+        usernames.clear();
+        last = null;
+        hasMore = true;
+        loading = false;
+        publish();
+        loadMore();
+    }
+
+    /**
+     * Tells the pager which user is the last one on screen, so it can load
+     * the next page before it is scrolled to.
+     * @param lastVisible the position of the last visible user
+     */
+    public void onVisibleRange(int lastVisible) {
+        if (lastVisible >= usernames.size() - PREFETCH_DISTANCE && hasMore) {
+            loadMore();
+        }
+    }
+
+    /**
+     * Stops showing a user, e.g. after they were unfollowed.
+     * @param username the user
+     */
+    public void remove(String username) {
+        if (usernames.remove(username)) {
+            publish();
+        }
+    }
+
+    /**
+     * Loads the page after the loaded users.
+     */
+    private void loadMore() {
+        if (loading) {
+            return;
+        }
+        loading = true;
+        int loadGeneration = generation;
+        Query next = (last == null) ? query : query.startAfter(last);
+        next.limit(PAGE_SIZE).get().addOnCompleteListener(task -> {
+            if (loadGeneration != generation) {
+                return;
+            }
+            loading = false;
+            if (!task.isSuccessful()) {
+                listener.onLoadFailed(task.getException());
+                return;
+            }
+            QuerySnapshot snapshot = task.getResult();
+            hasMore = snapshot.size() == PAGE_SIZE;
+            for (DocumentSnapshot document : snapshot.getDocuments()) {
+                // the edge's id is the username at its other end
+                usernames.add(document.getId());
+                last = document;
+            }
+            publish();
+        });
+    }
+
+    /**
+     * Passes a copy of the loaded users to the listener.
+     */
+    private void publish() {
+        listener.onUsersChanged(new ArrayList<String>(usernames));
+    }
+}
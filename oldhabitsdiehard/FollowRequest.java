@@ -23,9 +23,14 @@
 
 package com.example.oldhabitsdiehard;
 
+import com.google.android.gms.tasks.Task;
+
+import java.util.Objects;
+
 /**
  * Class that holds follow requests between users. Follow requests are held by
- * the followee (user that is to be followed).
+ * the followee (user that is to be followed), one document per follower in
+ * their FollowRequests collection.
  *
  * @author Rowan Tilroe
  */
@@ -59,47 +64,37 @@ public class FollowRequest {
     public String getFollower() { return follower; }
 
     /**
-     * Remove the follow request
+     * Send the follow request
+     * @return the write task
      */
-    private void delete() {
-        // get the database
-        UserDatabase db = UserDatabase.getInstance();
-        // remove this request from the followee
-        User followeeUser = db.getUser(followee);
-        followeeUser.getFollowRequests().remove(this);
-        // update database
-        db.updateUser(followeeUser);
+    public Task<Void> send() {
+        return UserDatabase.getInstance().sendFollowRequest(this);
     }
 
     /**
-     * Accept the follow request
+     * Cancel the follow request, as the follower
+     * @return the write task
      */
-    public void accept() {
-        // Get the users
-        UserDatabase db = UserDatabase.getInstance();
-        User followerUser = db.getUser(follower);
-        User followeeUser = db.getUser(followee);
-
-        // Add the follower to the followee's followers list
-        followeeUser.getFollowers().add(follower);
-
-        // Add the followee to the follower's following list
-        followerUser.getFollowing().add(followee);
-
-        // Update database with changes
-        db.updateUser(followerUser);
-        db.updateUser(followeeUser);
+    public Task<Void> cancel() {
+        return UserDatabase.getInstance().deleteFollowRequest(this);
+    }
 
-        // Remove follow request
-        delete();
+    /**
+     * Accept the follow request. The request is removed and the follow edges
+     * and counts are added in one transaction.
+     * @return the write task
+     */
+    public Task<Void> accept() {
+        return UserDatabase.getInstance().acceptFollowRequest(this);
     }
 
     /**
      * Deny the follow request
+     * @return the write task
      */
-    public void deny() {
+    public Task<Void> deny() {
         // Do nothing and delete the request
-        delete();
+        return UserDatabase.getInstance().deleteFollowRequest(this);
     }
 
     /**
@@ -125,4 +120,14 @@ public class FollowRequest {
         // Compare follower & followee
         return fr.getFollowee().equals(followee) && fr.getFollower().equals(follower);
     }
+
+    /**
+     * Overriding hashCode method, consistent with equals so requests can be
+     * kept in hash based sets and maps
+     * @return the hash of the follower and followee
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(follower, followee);
+    }
 }
@@ -23,98 +23,173 @@
 
 package com.example.oldhabitsdiehard;
 
-import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Custom adapter for the FollowRequest class.
+ * Rows are fed by a FollowRequestStream one request at a time and diffed by
+ * requesting user on a background thread, so a new or answered request only
+ * adds or removes that row.
  *
  * @author Rowan Tilroe
  */
-public class FollowRequestAdapter extends ArrayAdapter<FollowRequest> {
-    private Context context;
-    private User user;
+public class FollowRequestAdapter extends ListAdapter<FollowRequest, FollowRequestAdapter.ViewHolder> {
+    private final StableIds stableIds = new StableIds();
+
+    /**
+     * Compares rows by follower, since every request in the list has the
+     * current user as its followee.
+     */
+    private static final DiffUtil.ItemCallback<FollowRequest> DIFF = new DiffUtil.ItemCallback<FollowRequest>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull FollowRequest oldRequest, @NonNull FollowRequest newRequest) {
+            return oldRequest.getFollower().equals(newRequest.getFollower());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull FollowRequest oldRequest, @NonNull FollowRequest newRequest) {
+            return oldRequest.equals(newRequest);
+        }
+    };
 
     /**
      * Constructor
-     * @param context the current context
-     * @param user the current user
      */
-    public FollowRequestAdapter(Context context, User user) {
-        super(context, 0, user.getFollowRequests());
-        this.user = user;
-        this.context = context;
+    public FollowRequestAdapter() {
+        super(DIFF);
+        setHasStableIds(true);
+    }
+
+    /**
+     * Shows a list of follow requests.
+     * @param requests the requests to show
+     */
+    public void setRequests(List<FollowRequest> requests) {
+        submitList(new ArrayList<FollowRequest>(requests));
+    }
+
+    /**
+     * Adds a row for a new follow request at the top of the list.
+     * @param request the new request
+     */
+    public void addRequest(FollowRequest request) {
+        List<FollowRequest> requests = new ArrayList<FollowRequest>(getCurrentList());
+        requests.add(0, request);
+        submitList(requests);
+    }
+
+    /**
+     * Removes the row of an answered or cancelled follow request.
+     * @param request the removed request
+     */
+    public void removeRequest(FollowRequest request) {
+        List<FollowRequest> requests = new ArrayList<FollowRequest>(getCurrentList());
+        requests.remove(request);
+        submitList(requests);
     }
 
     /**
-     * Gets a view for the list of follow requests for the current user.
+     * Gets the stable id of the row at a position.
      * @param position the index of the follow request
-     * @param convertView the view to be converted, can be null
+     * @return the id
+     */
+    @Override
+    public long getItemId(int position) {
+        return stableIds.get(getItem(position).getFollower());
+    }
+
+    /**
+     * Inflates a row from followrequest_content.
      * @param parent the parent ViewGroup, cannot be null
-     * @return a View that displays the request at the specified position
+     * @param viewType the type of view
+     * @return a ViewHolder for the row
      */
     @NonNull
     @Override
-    public View getView(int position, @Nullable View convertView, @NonNull ViewGroup parent) {
-        // get the view
-        View view = convertView;
-        if(view == null){
-            // inflate the layout if the view was not given
-            view = LayoutInflater.from(context).inflate(R.layout.followrequest_content, parent,false);
-        }
-        // Retrieve associated FollowRequest object
-        FollowRequest followRequest = user.getFollowRequests().get(position);
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.followrequest_content, parent, false);
+        return new ViewHolder(view);
+    }
 
+    /**
+     * Binds a follow request to a row.
+     * @param holder the row's ViewHolder
+     * @param position the index of the follow request
+     */
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
         // set the text of the textview
-        TextView requestText = view.findViewById(R.id.requested_user);
-        requestText.setText(followRequest.getFollower());
-
-        // Button functionality
-        Button confirmButton = view.findViewById(R.id.confirm_request);
-        Button deleteButton = view.findViewById(R.id.delete_follower);
-
-        // listener for the confirm button
-        confirmButton.setOnClickListener(new View.OnClickListener() {
-            /**
-             * If the confirm button is clicked, the follow request is accepted
-             * and the users are added to each other's follower/following lists.
-             * @param view the confirm button
-             */
-            @Override
-            public void onClick(View view) {
-                // accept request
-                followRequest.accept();
-                // remove the request from this user
-                user.getFollowRequests().remove(followRequest);
-                notifyDataSetChanged();
-            }
-        });
-
-        // listener for the delete button
-        deleteButton.setOnClickListener(new View.OnClickListener() {
-            /**
-             * If the delete button is clicked, the request is denied and the
-             * request is removed from this user's follow requests list.
-             * @param view the delete button
-             */
-            @Override
-            public void onClick(View view) {
-                // deny the request
-                followRequest.deny();
-                // remove the request from this user
-                user.getFollowRequests().remove(followRequest);
-                notifyDataSetChanged();
-            }
-        });
-
-        return view;
+        holder.requestText.setText(getItem(position).getFollower());
+    }
+
+    /**
+     * Holds the views of a follow request row.
+     */
+    public class ViewHolder extends RecyclerView.ViewHolder {
+        TextView requestText;
+        Button confirmButton;
+        Button deleteButton;
+
+        /**
+         * Constructor
+         * @param itemView the row view, cannot be null
+         */
+        public ViewHolder(@NonNull View itemView) {
+            super(itemView);
+            requestText = itemView.findViewById(R.id.requested_user);
+            confirmButton = itemView.findViewById(R.id.confirm_request);
+            deleteButton = itemView.findViewById(R.id.delete_follower);
+
+            // listener for the confirm button
+            confirmButton.setOnClickListener(new View.OnClickListener() {
+                /**
+                 * If the confirm button is clicked, the follow request is accepted
+                 * and the users are added to each other's follower/following lists.
+                 * @param view the confirm button
+                 */
+                @Override
+                public void onClick(View view) {
+                    int position = getAdapterPosition();
+                    if (position == RecyclerView.NO_POSITION) {
+                        return;
+                    }
+                    FollowRequest followRequest = getItem(position);
+                    // accept request, the row is removed by the stream and the
+                    // new follower is counted by the profile's counters
+                    followRequest.accept();
+                }
+            });
+
+            // listener for the delete button
+            deleteButton.setOnClickListener(new View.OnClickListener() {
+                /**
+                 * If the delete button is clicked, the request is denied and the
+                 * request is removed from this user's follow requests list.
+                 * @param view the delete button
+                 */
+                @Override
+                public void onClick(View view) {
+                    int position = getAdapterPosition();
+                    if (position == RecyclerView.NO_POSITION) {
+                        return;
+                    }
+                    FollowRequest followRequest = getItem(position);
+                    // deny the request, the row is removed by the stream
+                    followRequest.deny();
+                }
+            });
+        }
     }
 }
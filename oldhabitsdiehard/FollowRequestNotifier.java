@@ -0,0 +1,130 @@
+/*
+ *  FollowRequestNotifier
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+
+import java.util.List;
+
+/**
+ * Shows a local notification when a new follow request arrives. Requests
+ * the user already had when the stream started are not notified. The
+ * notifications can be turned off, and are on by default.
+ */
+public class FollowRequestNotifier implements FollowRequestStream.Listener {
+    // constants
+    private static final String CHANNEL_ID = "follow_requests";
+    private static final String PREFS = "notifications";
+    private static final String ENABLED_KEY = "followRequestsEnabled";
+
+    private final Context context;
+
+    /**
+     * Constructor
+     * @param context the context to show notifications from
+     */
+    public FollowRequestNotifier(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    /**
+     * Checks whether follow request notifications are turned on.
+     * @param context the context
+     * @return true if notifications should be shown
+     */
+    public static boolean isEnabled(Context context) {
+        return prefs(context).getBoolean(ENABLED_KEY, true);
+    }
+
+    /**
+     * Turns follow request notifications on or off.
+     * @param context the context
+     * @param enabled true to show notifications
+     */
+    public static void setEnabled(Context context, boolean enabled) {
+        prefs(context).edit().putBoolean(ENABLED_KEY, enabled).apply();
+    }
+
+    /**
+     * Does nothing, the requests were already there.
+     * @param requests the current requests
+     */
+    @Override
+    public void onRequestsLoaded(List<FollowRequest> requests) {}
+
+    /**
+     * Shows a notification for the new request.
+     * @param request the new request
+     */
+    @Override
+    public void onRequestAdded(FollowRequest request) {
+        NotificationManagerCompat manager = NotificationManagerCompat.from(context);
+        if (!isEnabled(context) || !manager.areNotificationsEnabled()) {
+            return;
+        }
+        createChannel();
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setSmallIcon(R.mipmap.ic_launcher)
+                .setContentTitle("New follow request")
+                .setContentText(request.getFollower() + " wants to follow you")
+                .setAutoCancel(true);
+        // one notification per follower, so a repeated request replaces the old one
+        manager.notify(CHANNEL_ID, request.getFollower().hashCode(), builder.build());
+    }
+
+    /**
+     * Removes the notification of an answered or cancelled request.
+     * @param request the removed request
+     */
+    @Override
+    public void onRequestRemoved(FollowRequest request) {
+        NotificationManagerCompat.from(context).cancel(CHANNEL_ID, request.getFollower().hashCode());
+    }
+
+    /**
+     * Creates the notification channel, which is needed from Android 8.
+     */
+    private void createChannel() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationChannel channel = new NotificationChannel(CHANNEL_ID, "Follow requests", NotificationManager.IMPORTANCE_DEFAULT);
+            context.getSystemService(NotificationManager.class).createNotificationChannel(channel);
+        }
+    }
+
+    /**
+     * Gets the notification preferences.
+     * @param context the context
+     * @return the preferences
+     */
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ *  FollowRequestStream
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A live stream of the logged in user's incoming follow requests. The
+ * current requests are delivered once, and after that only the requests
+ * that were added or removed, so a list can be updated row by row.
+ *
+ * The stream listens to the user's FollowRequests collection while the
+ * owner is started. Each change only downloads the request documents that
+ * changed, never the user's document.
+ */
+public class FollowRequestStream implements LifecycleEventObserver {
+    private final Listener listener;
+    private ListenerRegistration registration;
+    private boolean loaded;
+
+    /**
+     * Receives the changes to the follow requests.
+     */
+    public interface Listener {
+        /**
+         * Called with the requests the user has when the stream starts.
+         * @param requests the current requests
+         */
+        void onRequestsLoaded(List<FollowRequest> requests);
+
+        /**
+         * Called when a new request arrives.
+         * @param request the new request
+         */
+        void onRequestAdded(FollowRequest request);
+
+        /**
+         * Called when a request is accepted, denied or cancelled.
+         * @param request the removed request
+         */
+        void onRequestRemoved(FollowRequest request);
+    }
+
+    /**
+     * Creates a stream that delivers changes while the owner is started.
+     * @param owner the lifecycle to follow, e.g. a fragment's view
+     * @param listener receives the changes
+     */
+    public FollowRequestStream(LifecycleOwner owner, Listener listener) {
+        this.listener = listener;
+        owner.getLifecycle().addObserver(this);
+    }
+
+    /**
+     * Starts listening when the owner starts, and stops when it stops.
+     * @param source the owner
+     * @param event the lifecycle event
+     */
+    @Override
+    public void onStateChanged(@NonNull LifecycleOwner source, @NonNull Lifecycle.Event event) {
+        if (event == Lifecycle.Event.ON_START) {
+            start();
+        } else if (event == Lifecycle.Event.ON_STOP) {
+            stop();
+        }
+    }
+
+    /**
+     * Starts listening to the logged in user's requests.
+     */
+    private void start() {
+        User user = UserStore.getInstance().get();
+        if (user == null || registration != null) {
+            return;
+        }
+        UserDatabase db = UserDatabase.getInstance();
+        if (user.getFollowRequests() != null && !user.getFollowRequests().isEmpty()) {
+            // requests sent before the FollowRequests collection are moved there
+            db.moveFollowRequests(user);
+            UserStore.getInstance().mutateLocally(User::clearFollowRequests);
+        }
+        loaded = false;
+        registration = db.listenToFollowRequests(user.getUsername(), this::onSnapshot);
+    }
+
+    /**
+     * Stops listening, the requests are loaded again on the next start.
+     */
+    private void stop() {
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+    }
+
+    /**
+     * Delivers the requests of the first snapshot, then the changes.
+     * @param snapshot the requests, or null on error
+     * @param e the error, if any
+     */
+    private void onSnapshot(QuerySnapshot snapshot, Exception e) {
+        if (e != null || snapshot == null) {
+            return;
+        }
+        if (!loaded) {
+            loaded = true;
+            listener.onRequestsLoaded(new ArrayList<FollowRequest>(snapshot.toObjects(FollowRequest.class)));
+            return;
+        }
+        for (DocumentChange change : snapshot.getDocumentChanges()) {
+            FollowRequest request = change.getDocument().toObject(FollowRequest.class);
+            if (change.getType() == DocumentChange.Type.ADDED) {
+                listener.onRequestAdded(request);
+            } else if (change.getType() == DocumentChange.Type.REMOVED) {
+                listener.onRequestRemoved(request);
+            }
+        }
+    }
+}
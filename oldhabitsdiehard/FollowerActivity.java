@@ -29,11 +29,13 @@ import android.os.Build;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.Button;
-import android.widget.ListView;
 import android.widget.TextView;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.RequiresApi;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 /**
  * Class that displays the Following page, which shows a list of users that the
@@ -59,9 +61,8 @@ public class FollowerActivity extends AppCompatActivity {
         // set the view to the followers page
         setContentView(R.layout.followers_view);
 
-        // get the user database and the current user
-        UserDatabase db = UserDatabase.getInstance();
-        user = db.getUser(CurrentUser.get().getUsername());
+        // get the current user
+        user = UserStore.getInstance().get();
 
         // define the UI elements
         Button backArrow = findViewById(R.id.back_profile_following);
@@ -69,17 +70,57 @@ public class FollowerActivity extends AppCompatActivity {
         @SuppressLint("WrongViewCast") TextView followerLayout = findViewById(R.id.followers_layout);
 
         // define the lists
-        ListView followingList = findViewById(R.id.following_list_1);
-        ListView followersList = findViewById(R.id.follower_list_1);
+        RecyclerView followingList = findViewById(R.id.following_list_1);
+        RecyclerView followersList = findViewById(R.id.follower_list_1);
+        followingList.setLayoutManager(new LinearLayoutManager(this));
+        followersList.setLayoutManager(new LinearLayoutManager(this));
 
-        // create follower and following adapters
-        FollowingAdapter followingAdapter = new FollowingAdapter(this, user);
-        FollowerAdapter followerAdapter = new FollowerAdapter(this, user);
+        // create follower and following adapters, which page in the lists
+        FollowingAdapter followingAdapter = new FollowingAdapter(user.getUsername());
+        FollowerAdapter followerAdapter = new FollowerAdapter(user.getUsername());
 
         // set the adapters
         followingList.setAdapter(followingAdapter);
         followersList.setAdapter(followerAdapter);
 
+        // load the next page of each list before its end is reached
+        followingList.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            /**
+             * Pass the last visible row to the adapter.
+             * @param recyclerView the list
+             * @param dx the horizontal scroll amount
+             * @param dy the vertical scroll amount
+             */
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                followingAdapter.onVisibleRange(((LinearLayoutManager) recyclerView.getLayoutManager()).findLastVisibleItemPosition());
+            }
+        });
+        followersList.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            /**
+             * Pass the last visible row to the adapter.
+             * @param recyclerView the list
+             * @param dx the horizontal scroll amount
+             * @param dy the vertical scroll amount
+             */
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                followerAdapter.onVisibleRange(((LinearLayoutManager) recyclerView.getLayoutManager()).findLastVisibleItemPosition());
+            }
+        });
+
+        // the lists are loaded again once follows from before the edge
+        // collections have been copied there
+        UserStore.getInstance().getUser().observe(this, changed -> {
+            if (changed != null && changed.getEdgesMirrored() && !user.getEdgesMirrored()) {
+                followingAdapter.refresh();
+                followerAdapter.refresh();
+            }
+            if (changed != null) {
+                user = changed;
+            }
+        });
+
         // listener for the following header
         followingHeader.setOnClickListener(new View.OnClickListener() {
             /**
@@ -91,24 +132,23 @@ public class FollowerActivity extends AppCompatActivity {
             public void onClick(View view) {
                 // create a new FollowingActivity intent
                 Intent intent = new Intent(view.getContext(), FollowingActivity.class);
-                // start the intent
+                // start the intent, replacing this activity
                 startActivity(intent);
+                finish();
             }
         });
 
         // listener for the back arrow
         backArrow.setOnClickListener(new View.OnClickListener() {
             /**
-             * When the back arrow is pressed, the app switches to the Profile
-             * activity.
+             * When the back arrow is pressed, the app returns to the Profile
+             * screen.
              * @param view the back arrow
              */
             @Override
             public void onClick(View view) {
-                // create Profile intent
-                Intent intent = new Intent(view.getContext(), ProfileActivity.class);
-                // start intent
-                startActivity(intent);
+                // the profile screen is still open underneath
+                finish();
             }
         });
     }
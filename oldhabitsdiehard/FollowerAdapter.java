@@ -23,88 +23,161 @@
 
 package com.example.oldhabitsdiehard;
 
-import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.List;
 
 /**
  * Custom adapter for the list of users that follow the current user.
+ * Followers are paged in from the user's Followers collection as the list
+ * scrolls. Rows are diffed by username on a background thread, so removing a
+ * follower only removes that row.
  *
  * @author Paige Lekach
  */
-public class FollowerAdapter extends ArrayAdapter<String> {
-    private Context context;
-    private User user;
+public class FollowerAdapter extends ListAdapter<String, FollowerAdapter.ViewHolder> {
+    private final String username;
+    private final FollowPager pager;
+    private final StableIds stableIds = new StableIds();
     UserDatabase db = UserDatabase.getInstance();
 
+    /**
+     * Compares rows by username, which is all a row displays.
+     */
+    private static final DiffUtil.ItemCallback<String> DIFF = new DiffUtil.ItemCallback<String>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull String oldUser, @NonNull String newUser) {
+            return oldUser.equals(newUser);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull String oldUser, @NonNull String newUser) {
+            return oldUser.equals(newUser);
+        }
+    };
+
     /**
      * Constructor
-     * @param context the current context
-     * @param user the current user
+     * @param username the user whose followers to show
      */
-    public FollowerAdapter(Context context, User user) {
-        super(context, 0, user.getFollowers());
-        this.user = user;
-        this.context = context;
+    public FollowerAdapter(String username) {
+        super(DIFF);
+        this.username = username;
+        setHasStableIds(true);
+        pager = new FollowPager(db.followersByName(username), new FollowPager.Listener() {
+            /**
+             * Diff the loaded users against the shown ones.
+             * @param usernames the loaded users
+             */
+            @Override
+            public void onUsersChanged(List<String> usernames) {
+                submitList(usernames);
+            }
+
+            /**
+             * Keep showing the users that were loaded.
+             * @param e the error
+             */
+            @Override
+            public void onLoadFailed(Exception e) {}
+        });
+        refresh();
     }
 
     /**
-     * Method to get a view for a list of Followers using this adapter.
+     * Shows the user's followers from the first page again.
+     */
+    public void refresh() {
+        pager.refresh();
+    }
+
+    /**
+     * Loads the next page of users before the list is scrolled to its end.
+     * @param lastVisible the position of the last visible row
+     */
+    public void onVisibleRange(int lastVisible) {
+        pager.onVisibleRange(lastVisible);
+    }
+
+    /**
+     * Gets the stable id of the row at a position.
      * @param position the index of the follower
-     * @param convertView the view to be converted, can be null
+     * @return the id
+     */
+    @Override
+    public long getItemId(int position) {
+        return stableIds.get(getItem(position));
+    }
+
+    /**
+     * Inflates a row from followers_view_content.
      * @param parent the parent ViewGroup, cannot be null
-     * @return a View that displays the follower at the specified position
+     * @param viewType the type of view
+     * @return a ViewHolder for the row
      */
     @NonNull
     @Override
-    public View getView(int position, @Nullable View convertView, @NonNull ViewGroup parent) {
-        // get the view
-        View view = convertView;
-        if(view == null){
-            // inflate the layout if the view was not given
-            view = LayoutInflater.from(context).inflate(R.layout.followers_view_content, parent,false);
-        }
-
-        // get the username of the follower
-        String follower = user.getFollowers().get(position);
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.followers_view_content, parent, false);
+        return new ViewHolder(view);
+    }
 
-        // define the textview and set it to show the selected follower
-        TextView followerUser = view.findViewById(R.id.follower_user);
-        followerUser.setText(follower);
+    /**
+     * Binds a follower to a row.
+     * @param holder the row's ViewHolder
+     * @param position the index of the follower
+     */
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        // set the textview to show the selected follower
+        holder.followerUser.setText(getItem(position));
+    }
 
-        // define the delete button
-        Button deleteFollower = view.findViewById(R.id.delete_follower);
+    /**
+     * Holds the views of a follower row.
+     */
+    public class ViewHolder extends RecyclerView.ViewHolder {
+        TextView followerUser;
+        Button deleteFollower;
 
-        // listener for delete button
-        deleteFollower.setOnClickListener(new View.OnClickListener() {
-            /**
-             * If the delete button is pressed, the follower is deleted from the
-             * user's followers list. The follower no longer follows the current
-             * user.
-             * @param view the delete button
-             */
-            @Override
-            public void onClick(View view) {
-                // remove the follower from this user
-                user.getFollowers().remove(follower);
-                // get the follower user object
-                User secondUser = db.getUser(follower);
-                // remove this user from the follower
-                secondUser.removeFollowing(user.getUsername());
-                // update database
-                db.updateUser(user);
-                db.updateUser(secondUser);
-                notifyDataSetChanged();
-            }
-        });
+        /**
+         * Constructor
+         * @param itemView the row view, cannot be null
+         */
+        public ViewHolder(@NonNull View itemView) {
+            super(itemView);
+            followerUser = itemView.findViewById(R.id.follower_user);
+            deleteFollower = itemView.findViewById(R.id.delete_follower);
 
-        return view;
+            // listener for delete button
+            deleteFollower.setOnClickListener(new View.OnClickListener() {
+                /**
+                 * If the delete button is pressed, the follower is deleted from the
+                 * user's followers list. The follower no longer follows the current
+                 * user.
+                 * @param view the delete button
+                 */
+                @Override
+                public void onClick(View view) {
+                    int position = getAdapterPosition();
+                    if (position == RecyclerView.NO_POSITION) {
+                        return;
+                    }
+                    String follower = getItem(position);
+                    // remove both follow edges, and the follower's row
+                    db.unfollow(follower, username);
+                    pager.remove(follower);
+                }
+            });
+        }
     }
 }
@@ -28,15 +28,14 @@ import android.content.Intent;
 import android.os.Build;
 import android.os.Bundle;
 import android.view.View;
-import android.widget.AdapterView;
 import android.widget.Button;
-import android.widget.ListView;
 import android.widget.TextView;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.RequiresApi;
 import androidx.appcompat.app.AppCompatActivity;
-
-import java.util.ArrayList;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 /**
  * Class that displays the Following page, which shows a list of users that the
@@ -46,7 +45,6 @@ import java.util.ArrayList;
  */
 public class FollowingActivity extends AppCompatActivity {
     private User user;
-    private ArrayList<String> followingValList;
 
     /**
      * Declares action to take when this activity is started. Upon creation, the
@@ -62,10 +60,8 @@ public class FollowingActivity extends AppCompatActivity {
         // set the following view
         setContentView(R.layout.following_view);
 
-        // get the database and current user
-        UserDatabase db = UserDatabase.getInstance();
-        user = db.getUser(CurrentUser.get().getUsername());
-        followingValList = user.getFollowing();
+        // get the current user
+        user = UserStore.getInstance().get();
 
         // define buttons and textviews
         Button backArrow = findViewById(R.id.back_profile_following);
@@ -73,10 +69,35 @@ public class FollowingActivity extends AppCompatActivity {
         TextView followersHeader = findViewById(R.id.follower_header);
         @SuppressLint("WrongViewCast") TextView followerLayout = findViewById(R.id.followers_layout);
 
-        // define follower and following lists
-        ListView followingList = findViewById(R.id.following_list_2);
-        FollowingAdapter followingAdapter = new FollowingAdapter(this, user);
+        // define the following list, clicking a user opens their page. The
+        // list is paged in as it scrolls
+        RecyclerView followingList = findViewById(R.id.following_list_2);
+        followingList.setLayoutManager(new LinearLayoutManager(this));
+        FollowingAdapter followingAdapter = new FollowingAdapter(user.getUsername());
         followingList.setAdapter(followingAdapter);
+        followingList.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            /**
+             * Pass the last visible row to the adapter.
+             * @param recyclerView the list
+             * @param dx the horizontal scroll amount
+             * @param dy the vertical scroll amount
+             */
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                followingAdapter.onVisibleRange(((LinearLayoutManager) recyclerView.getLayoutManager()).findLastVisibleItemPosition());
+            }
+        });
+
+        // the list is loaded again once follows from before the edge
+        // collections have been copied there
+        UserStore.getInstance().getUser().observe(this, changed -> {
+            if (changed != null && changed.getEdgesMirrored() && !user.getEdgesMirrored()) {
+                followingAdapter.refresh();
+            }
+            if (changed != null) {
+                user = changed;
+            }
+        });
 
         // listener for the followers header
         followersHeader.setOnClickListener(new View.OnClickListener() {
@@ -87,34 +108,23 @@ public class FollowingActivity extends AppCompatActivity {
              */
             @Override
             public void onClick(View view) {
-                // create Follower intent and start it
+                // create Follower intent and start it, replacing this activity
                 Intent intent = new Intent(view.getContext(), FollowerActivity.class);
                 startActivity(intent);
+                finish();
             }
         });
 
         backArrow.setOnClickListener(new View.OnClickListener() {
             /**
-             * If the back arrow is pressed, the app switches back to the
-             * Profile activity.
+             * If the back arrow is pressed, the app returns to the Profile
+             * screen.
              * @param view the back arrow button
              */
             @Override
             public void onClick(View view) {
-                // create Profile intent and start it
-                Intent intent = new Intent(view.getContext(), ProfileActivity.class);
-                startActivity(intent);
-            }
-        });
-
-        followingList.setOnItemClickListener(new AdapterView.OnItemClickListener() {
-            @Override
-            public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
-                final String followingUser = followingValList.get(position);
-
-                Intent intent = new Intent(getApplicationContext(), FollowingUserActivity.class);
-                intent.putExtra("username",followingUser);
-                startActivity(intent);
+                // the profile screen is still open underneath
+                finish();
             }
         });
 
@@ -23,103 +23,181 @@
 
 package com.example.oldhabitsdiehard;
 
-import static androidx.core.content.ContextCompat.startActivity;
-
-import android.content.Context;
 import android.content.Intent;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.List;
 
 /**
  * Custom adapter for the list of users that the current user is following.
+ * Followed users are paged in from the user's Following collection as the
+ * list scrolls. Rows are diffed by username on a background thread, so
+ * unfollowing a user only removes that row.
  *
  * @author Paige Lekach
  */
-public class FollowingAdapter extends ArrayAdapter<String> {
-    private Context context;
-    private User user;
+public class FollowingAdapter extends ListAdapter<String, FollowingAdapter.ViewHolder> {
+    private final String username;
+    private final FollowPager pager;
+    private final StableIds stableIds = new StableIds();
     UserDatabase db = UserDatabase.getInstance();
 
+    /**
+     * Compares rows by username, which is all a row displays.
+     */
+    private static final DiffUtil.ItemCallback<String> DIFF = new DiffUtil.ItemCallback<String>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull String oldUser, @NonNull String newUser) {
+            return oldUser.equals(newUser);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull String oldUser, @NonNull String newUser) {
+            return oldUser.equals(newUser);
+        }
+    };
+
     /**
      * Constructor
-     * @param context the current context
-     * @param user the current user
+     * @param username the user whose following to show
+     */
+    public FollowingAdapter(String username) {
+        super(DIFF);
+        this.username = username;
+        setHasStableIds(true);
+        pager = new FollowPager(db.followingByName(username), new FollowPager.Listener() {
+            /**
+             * Diff the loaded users against the shown ones.
+             * @param usernames the loaded users
+             */
+            @Override
+            public void onUsersChanged(List<String> usernames) {
+                submitList(usernames);
+            }
+
+            /**
+             * Keep showing the users that were loaded.
+             * @param e the error
+             */
+            @Override
+            public void onLoadFailed(Exception e) {}
+        });
+        refresh();
+    }
+
+    /**
+     * Shows the users the user follows from the first page again.
+     */
+    public void refresh() {
+        pager.refresh();
+    }
+
+    /**
+     * Loads the next page of users before the list is scrolled to its end.
+     * @param lastVisible the position of the last visible row
      */
-    public FollowingAdapter(Context context, User user) {
-        super(context, 0, user.getFollowing());
-        this.user = user;
-        this.context = context;
+    public void onVisibleRange(int lastVisible) {
+        pager.onVisibleRange(lastVisible);
     }
 
     /**
-     * Method to get a view for a list of Following users using this adapter.
+     * Gets the stable id of the row at a position.
      * @param position the position of the user
-     * @param convertView the view to be converted, can be null
+     * @return the id
+     */
+    @Override
+    public long getItemId(int position) {
+        return stableIds.get(getItem(position));
+    }
+
+    /**
+     * Inflates a row from following_view_content.
      * @param parent the parent ViewGroup, cannot be null
-     * @return a View that displays the following user at the specified position
+     * @param viewType the type of view
+     * @return a ViewHolder for the row
      */
     @NonNull
     @Override
-    public View getView(int position, @Nullable View convertView, @NonNull ViewGroup parent) {
-        // get the view
-        View view = convertView;
-        if(view == null){
-            // inflate the layout if the view was not given
-            view = LayoutInflater.from(context).inflate(R.layout.following_view_content, parent,false);
-        }
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.following_view_content, parent, false);
+        return new ViewHolder(view);
+    }
 
-        // get the username of the user
-        String follow = user.getFollowing().get(position);
+    /**
+     * Binds a followed user to a row.
+     * @param holder the row's ViewHolder
+     * @param position the position of the user
+     */
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        // set the textview to show the selected user
+        holder.followingUser.setText(getItem(position));
+    }
 
-        // define the textview and set it to show the selected user
-        TextView followingUser = view.findViewById(R.id.following_user);
-        followingUser.setText(follow);
+    /**
+     * Holds the views of a following row.
+     */
+    public class ViewHolder extends RecyclerView.ViewHolder {
+        TextView followingUser;
+        Button unFollowingButton;
 
-        // define the unfollow button
-        Button unFollowingButton = view.findViewById(R.id.unfollow_button);
+        /**
+         * Constructor
+         * @param itemView the row view, cannot be null
+         */
+        public ViewHolder(@NonNull View itemView) {
+            super(itemView);
+            followingUser = itemView.findViewById(R.id.following_user);
+            unFollowingButton = itemView.findViewById(R.id.unfollow_button);
 
-        followingUser.setOnClickListener(new View.OnClickListener() {
-            @Override
-            public void onClick(View view) {
-                User secondUser = db.getUser(follow);
-                Intent intent = new Intent(view.getContext(), FollowingUserActivity.class);
-                intent.putExtra("username",secondUser.getUsername());
-                startActivity(view.getContext(),intent, null);
-            }
-        });
-        // listener for the unfollow button
-        unFollowingButton.setOnClickListener(new View.OnClickListener() {
-            /**
-             * If the unfollow button is presed, the selected user is removed
-             * from the current user's following list, and the current user is
-             * removed from the selected user's followers. The current user no
-             * longer follows the selected user.
-             * @param view the unfollow button
-             */
-            @Override
-            public void onClick(View view) {
-                // unfollow the selected user
-                user.getFollowing().remove(follow);
-                // get the selected user object
-                User secondUser = db.getUser(follow);
-                // remove current user from the selected user's follower list
-                secondUser.removeFollower(user.getUsername());
-                // update database
-                db.updateUser(user);
-                db.updateUser(secondUser);
-                notifyDataSetChanged();
-            }
-        });
+            // listener for the row, opens the followed user's page
+            itemView.setOnClickListener(new View.OnClickListener() {
+                /**
+                 * Starts the following user activity for the clicked user.
+                 * @param view the row
+                 */
+                @Override
+                public void onClick(View view) {
+                    int position = getAdapterPosition();
+                    if (position == RecyclerView.NO_POSITION) {
+                        return;
+                    }
+                    Intent intent = new Intent(view.getContext(), FollowingUserActivity.class);
+                    intent.putExtra("username", getItem(position));
+                    view.getContext().startActivity(intent);
+                }
+            });
 
-        return view;
+            // listener for the unfollow button
+            unFollowingButton.setOnClickListener(new View.OnClickListener() {
+                /**
+                 * If the unfollow button is presed, the selected user is removed
+                 * from the current user's following list, and the current user is
+                 * removed from the selected user's followers. The current user no
+                 * longer follows the selected user.
+                 * @param view the unfollow button
+                 */
+                @Override
+                public void onClick(View view) {
+                    int position = getAdapterPosition();
+                    if (position == RecyclerView.NO_POSITION) {
+                        return;
+                    }
+                    String follow = getItem(position);
+                    // remove both follow edges, and the selected user's row
+                    db.unfollow(username, follow);
+                    pager.remove(follow);
+                }
+            });
+        }
     }
 }
-
-
@@ -29,13 +29,13 @@ import android.os.Bundle;
 import android.view.View;
 import android.widget.AdapterView;
 import android.widget.Button;
-import android.widget.ListView;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.annotation.RequiresApi;
 import androidx.appcompat.app.AppCompatActivity;
-
-import java.util.ArrayList;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 /**
  * This activity allows the user to view another user that they follow.
@@ -43,8 +43,8 @@ import java.util.ArrayList;
  * @author Paige Lekach
  */
 public class FollowingUserActivity extends AppCompatActivity {
-    private User user;
     private UserDatabase db;
+    private StaticHabitAdapter staticHabitAdapter;
 
     /**
      * Defines UI elements and listeners when the activity is started.
@@ -65,26 +65,17 @@ public class FollowingUserActivity extends AppCompatActivity {
         Intent intent = getIntent();
         String username = intent.getStringExtra("username");
 
-        // get the user
-        user = db.getUser(username);
-
         // define back button
         Button backButton = findViewById(R.id.back_to_following);
 
-        // get list of public habits belonging to the user
-        ArrayList<Habit> userPublicHabits = user.getPublicHabits();
-
         // define UI elements
-        ListView userHabitList = findViewById(R.id.following_habits_list);
+        RecyclerView userHabitList = findViewById(R.id.following_habits_list);
+        userHabitList.setLayoutManager(new LinearLayoutManager(this));
         TextView usernameHeader = findViewById(R.id.following_username);
         usernameHeader.setText(username);
 
-        // user static habit adapter to display habits
-        StaticHabitAdapter staticHabitAdapter = new StaticHabitAdapter(getApplicationContext(), user.getPublicHabits());
-        userHabitList.setAdapter(staticHabitAdapter);
-
-        // listener for habit list
-        userHabitList.setOnItemClickListener(new AdapterView.OnItemClickListener() {
+        // user static habit adapter to display habits, with a listener for the habit list
+        staticHabitAdapter = new StaticHabitAdapter(new AdapterView.OnItemClickListener() {
             /**
              * Gets the user's public habit and creates the habit view fragment
              * when a habit is clicked.
@@ -96,24 +87,53 @@ public class FollowingUserActivity extends AppCompatActivity {
             @Override
             public void onItemClick(AdapterView<?> adapterView, View view, int position, long l) {
                 // get clicked habit
-                final Habit habit = userPublicHabits.get(position);
+                final Habit habit = staticHabitAdapter.getHabit(position);
                 // create fragment to view habit
                 FollowingHabitFragment fragment = FollowingHabitFragment.newInstance(habit, username);
                 fragment.show(getSupportFragmentManager(), "VIEW_HABIT");
             }
         });
+        userHabitList.setAdapter(staticHabitAdapter);
+        // get list of public habits belonging to the user, reading only
+        // their public profile. A cached copy is shown at once, and replaced
+        // when the server answers
+        db.getProfile(username, ReadPolicy.CACHE_THEN_SERVER, new ReadPolicy.Listener<PublicProfile>() {
+            /**
+             * Shows the user's public habits.
+             * @param profile the user's profile, or null if they do not exist
+             * @param fromCache whether the profile came from the cache
+             */
+            @Override
+            public void onRead(PublicProfile profile, boolean fromCache) {
+                if (isFinishing()) {
+                    return;
+                }
+                if (profile != null) {
+                    staticHabitAdapter.submitProfileHabits(profile.getPublicHabits());
+                } else {
+                    // the user has not logged in since profiles were added
+                    Toast.makeText(getApplicationContext(), "Profile unavailable", Toast.LENGTH_LONG).show();
+                }
+            }
+
+            /**
+             * Keeps what is shown if the profile could not be read.
+             * @param e the error
+             */
+            @Override
+            public void onReadFailed(Exception e) {}
+        });
 
         // listener for the back button
         backButton.setOnClickListener(new View.OnClickListener() {
             /**
-             * Starts the following activity when the back button is clicked.
+             * Returns to the following activity when the back button is clicked.
              * @param view the back button
              */
             @Override
             public void onClick(View view) {
-                // create intent for following activity and start it
-                Intent intent = new Intent(view.getContext(), FollowingActivity.class);
-                startActivity(intent);
+                // the following activity is still open underneath
+                finish();
             }
         });
     }
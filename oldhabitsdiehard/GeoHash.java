@@ -0,0 +1,183 @@
+/*
+ *  GeoHash
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Geohash helpers for location based habit event queries. A geohash is a
+ * base 32 string where each extra character narrows a location down to a
+ * smaller cell, so every event inside a cell has a geohash starting with the
+ * cell's hash and can be found with a single range query.
+ */
+public class GeoHash {
+    // constants
+    public static final int MAX_PRECISION = 10;
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final double EARTH_RADIUS_M = 6371008.8;
+    private static final double METERS_PER_DEGREE = 111320.0;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private GeoHash() {}
+
+    /**
+     * Encodes a location as a geohash.
+     * @param lat the latitude
+     * @param lon the longitude
+     * @param precision the number of characters in the hash
+     * @return the geohash
+     */
+    public static String encode(double lat, double lon, int precision) {
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder();
+        boolean evenBit = true;
+        int bit = 0;
+        int ch = 0;
+
+        while (hash.length() < precision) {
+            // bits alternate between longitude and latitude
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (lon >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLon = mid;
+                } else {
+                    ch = ch << 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (lat >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch = ch << 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(ch));
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Gets the [start, end] geohash ranges that together cover a circle. The
+     * precision is chosen so a cell is at least as big as the radius, so the
+     * circle is covered by the cell of the center and its neighbours.
+     * Results still need to be filtered with distance, since the cells cover
+     * more than the circle.
+     * @param lat the latitude of the center
+     * @param lon the longitude of the center
+     * @param radiusMeters the radius of the circle
+     * @return a list of {start, end} pairs for range queries
+     */
+    public static List<String[]> queryBounds(double lat, double lon, double radiusMeters) {
+        // cells are narrowest at the edge of the circle closest to a pole
+        double poleLat = Math.min(89.9, Math.abs(lat) + radiusMeters / METERS_PER_DEGREE);
+        double cosLat = Math.cos(Math.toRadians(poleLat));
+
+        // find the finest precision whose cells are still bigger than the radius
+        int precision = 0;
+        double cellHeight = 0;
+        double cellWidth = 0;
+        for (int p = 1; p <= MAX_PRECISION; p++) {
+            int bits = 5 * p;
+            double height = 180.0 / (1L << (bits / 2));
+            double width = 360.0 / (1L << (bits - bits / 2));
+            double widthMeters = width * METERS_PER_DEGREE * cosLat;
+            if (height * METERS_PER_DEGREE < radiusMeters || widthMeters < radiusMeters) {
+                break;
+            }
+            precision = p;
+            cellHeight = height;
+            cellWidth = width;
+        }
+
+        List<String[]> bounds = new ArrayList<String[]>();
+        if (precision == 0) {
+            // the circle is too big for any cell, so search everything
+            bounds.add(new String[] {"", "~"});
+            return bounds;
+        }
+
+        // the center cell and its neighbours
+        Set<String> hashes = new LinkedHashSet<String>();
+        for (int dy = -1; dy <= 1; dy++) {
+            double neighbourLat = Math.max(-90.0, Math.min(90.0, lat + dy * cellHeight));
+            for (int dx = -1; dx <= 1; dx++) {
+                double neighbourLon = wrapLon(lon + dx * cellWidth);
+                hashes.add(encode(neighbourLat, neighbourLon, precision));
+            }
+        }
+
+        for (String hash : hashes) {
+            // '~' sorts after every base 32 character
+            bounds.add(new String[] {hash, hash + "~"});
+        }
+        return bounds;
+    }
+
+    /**
+     * Gets the great circle distance between two locations.
+     * @param lat1 the latitude of the first location
+     * @param lon1 the longitude of the first location
+     * @param lat2 the latitude of the second location
+     * @param lon2 the longitude of the second location
+     * @return the distance in meters
+     */
+    public static double distance(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_M * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Wraps a longitude into [-180, 180).
+     * @param lon the longitude
+     * @return the wrapped longitude
+     */
+    private static double wrapLon(double lon) {
+        if (lon >= 180.0) {
+            return lon - 360.0;
+        } else if (lon < -180.0) {
+            return lon + 360.0;
+        }
+        return lon;
+    }
+}
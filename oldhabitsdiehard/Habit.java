@@ -33,7 +33,9 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * This class represents a habit.
@@ -326,6 +328,38 @@ public class Habit implements Serializable {
         habitEvents.remove(habitEvent);
     }
 
+    /**
+     * Sets the title, reason, start date, weekdays and publicity of this
+     * habit to those of another one, keeping this habit's events.
+     * @param other the habit to copy the details of
+     */
+    public void setDetails(Habit other) {
+        title = other.title;
+        reason = other.reason;
+        day = other.day;
+        month = other.month;
+        year = other.year;
+        weekdays = new ArrayList<Boolean>(other.weekdays);
+        isPublic = other.isPublic;
+    }
+
+    /**
+     * Makes a copy of this habit and its events that can be changed without
+     * changing it.
+     * @return the copy
+     */
+    public Habit copy() {
+        Habit copy = new Habit();
+        copy.setDetails(this);
+        copy.habitEvents = new ArrayList<HabitEvent>();
+        if (habitEvents != null) {
+            for (HabitEvent event : habitEvents) {
+                copy.habitEvents.add(event.copy());
+            }
+        }
+        return copy;
+    }
+
     /**
      *  Returns a score representing how well a user is following this habit.
      *  Score starts at 3 (good) and is subtracted by 1 for every previous habit
@@ -335,15 +369,33 @@ public class Habit implements Serializable {
      */
     @RequiresApi(api = Build.VERSION_CODES.O)
     public int followScore() {
+        // collect the days the habit was done on
+        Set<LocalDate> doneDays = new HashSet<LocalDate>();
+        for (HabitEvent he : habitEvents) {
+            doneDays.add(LocalDate.of(he.getYear(), he.getMonth(), he.getDay()));
+        }
+        return followScore(LocalDate.of(year, month, day), weekdays, doneDays, LocalDate.now());
+    }
+
+    /**
+     * Computes a follow score from a habit's schedule, see followScore().
+     * Static so it can also be run on a copy of the habit off the main thread.
+     * @param start the start date of the habit
+     * @param weekdays which days of the week the habit should be performed,
+     *                 starting at Sunday
+     * @param doneDays the days on which the habit was done
+     * @param today the current date
+     * @return a score from 0 to 3, with 3 being the best
+     */
+    @RequiresApi(api = Build.VERSION_CODES.O)
+    static int followScore(LocalDate start, List<Boolean> weekdays, Set<LocalDate> doneDays, LocalDate today) {
         // initialize score and count
         int score = 3;
         int countChecker = 3;
 
         // get the current date and day of week
-        LocalDate current = LocalDate.now();
+        LocalDate current = today;
         DayOfWeek currentDOW = current.getDayOfWeek();
-        // get the start date of the habit
-        LocalDate start = LocalDate.of(year, month, day);
 
         while ((score > 0) && (countChecker > 0) && (current.isAfter(start))) {
             // Habit needs to be done this day
@@ -355,17 +407,7 @@ public class Habit implements Serializable {
             if (weekdays.get(getCurrentDOW)) {
                 // Habit needed to be done on this day
                 countChecker--;
-                // Was habit done on this day?
-                boolean flag = false;
-                for (HabitEvent he : habitEvents) {
-                    LocalDate habitEventsDate = LocalDate.of(he.getYear(), he.getMonth(), he.getDay());
-                    if (current.equals(habitEventsDate)) {
-                        // the habit was done on this day
-                        flag = true;
-                        break;
-                    }
-                }
-                if (!flag) {
+                if (!doneDays.contains(current)) {
                     // habit was not done on this day, decrement score
                     score--;
                 }
@@ -377,4 +419,26 @@ public class Habit implements Serializable {
         }
         return score;
     }
+
+    /**
+     * Finds the next day, from today on, that a habit is scheduled for.
+     * @param start the start date of the habit
+     * @param weekdays which days of the week the habit should be performed,
+     *                 starting at Sunday
+     * @param today the current date
+     * @return the next scheduled day, or null if no weekdays are chosen
+     */
+    @RequiresApi(api = Build.VERSION_CODES.O)
+    static LocalDate nextDueDate(LocalDate start, List<Boolean> weekdays, LocalDate today) {
+        LocalDate current = start.isAfter(today) ? start : today;
+        // every weekday comes up within a week
+        for (int i = 0; i < 7; i++) {
+            int dow = current.getDayOfWeek().getValue() % 7;
+            if (weekdays.get(dow)) {
+                return current;
+            }
+            current = current.plusDays(1);
+        }
+        return null;
+    }
 }
\ No newline at end of file
@@ -35,15 +35,20 @@ import androidx.annotation.RequiresApi;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Custom adapter for Habits.
+ * Rows are bound from precomputed HabitRows, which the activity builds with
+ * the HabitRowBuilder and passes in with setRows.
  *
  * @author Filippo Ciandy
  */
 public class HabitAdapter extends RecyclerView.Adapter<HabitAdapter.ViewHolder> {
     private ArrayList<Habit> HabitList;
     private AdapterView.OnItemClickListener ItemClickListener;
+    private List<HabitRow> rows = new ArrayList<HabitRow>();
 
     /**
      * Constructor
@@ -56,6 +61,35 @@ public class HabitAdapter extends RecyclerView.Adapter<HabitAdapter.ViewHolder>
         this.ItemClickListener = ItemClickListener;
     }
 
+    /**
+     * Sets the precomputed rows to show, in the same order as the habit list.
+     * @param rows the rows
+     */
+    public void setRows(List<HabitRow> rows) {
+        this.rows = new ArrayList<HabitRow>(rows);
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Gets the habit shown in a row.
+     * @param position the position of the row
+     * @return the habit
+     */
+    public Habit getHabit(int position) {
+        return rows.get(position).getHabit();
+    }
+
+    /**
+     * Moves a row when its habit is dragged to a new position. The habit list
+     * itself is reordered by the caller once the habit is dropped.
+     * @param fromPosition the position the habit was at
+     * @param toPosition the position the habit was moved to
+     */
+    public void moveRow(int fromPosition, int toPosition) {
+        Collections.swap(rows, fromPosition, toPosition);
+        notifyItemMoved(fromPosition, toPosition);
+    }
+
     /**
      * Inflates row layout from habit_list_content.
      * @param parent the parent ViewGroup, cannot be null
@@ -84,27 +118,14 @@ public class HabitAdapter extends RecyclerView.Adapter<HabitAdapter.ViewHolder>
     public void onBindViewHolder(@NonNull ViewHolder holder, int _) {
         // get the position
         int position = holder.getAdapterPosition();
-        // get the habit at this position
-        Habit habit = HabitList.get(position);
-
-        // get the habit title and set the textview to display it
-        holder.textView.setText(habit.getTitle());
-
-        // get the habit's score
-        int score = habit.followScore();
-
-        // set the indicator based on the score
-        if (score == 3) {
-            holder.textView.setCompoundDrawablesWithIntrinsicBounds(0, 0, R.drawable.ic_score3habit, 0);
-        }
-        else if (score == 2) {
-            holder.textView.setCompoundDrawablesWithIntrinsicBounds(0, 0, R.drawable.ic_score2habit, 0);
-        }
-        else if (score == 1) {
-            holder.textView.setCompoundDrawablesWithIntrinsicBounds(0, 0, R.drawable.ic_score1habit, 0);
-        }
-        else {
-            holder.textView.setCompoundDrawablesWithIntrinsicBounds(0, 0, R.drawable.ic_score0habit, 0);
+        // get the precomputed row at this position
+        HabitRow row = rows.get(position);
+
+        // set the textview to display the habit title and score indicator
+        holder.textView.setText(row.getTitle());
+        holder.textView.setCompoundDrawablesWithIntrinsicBounds(0, 0, row.getScoreIcon(), 0);
+        if (holder.nextDue != null) {
+            holder.nextDue.setText(row.getNextDueLabel());
         }
 
         // listener for when a habit is clicked
@@ -127,7 +148,7 @@ public class HabitAdapter extends RecyclerView.Adapter<HabitAdapter.ViewHolder>
      */
     @Override
     public int getItemCount() {
-        return HabitList.size();
+        return rows.size();
     }
 
     /**
@@ -135,6 +156,7 @@ public class HabitAdapter extends RecyclerView.Adapter<HabitAdapter.ViewHolder>
      */
     public class ViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener {
         TextView textView;
+        TextView nextDue;
 
         /**
          * Constructor
@@ -144,6 +166,7 @@ public class HabitAdapter extends RecyclerView.Adapter<HabitAdapter.ViewHolder>
             super(itemView);
             // get the textview and define its listener
             textView = itemView.findViewById(R.id.habit_title);
+            nextDue = itemView.findViewById(R.id.habit_next_due);
             itemView.setOnClickListener(this);
         }
 
@@ -31,6 +31,7 @@ import com.google.android.gms.maps.model.LatLng;
 
 import java.io.Serializable;
 import java.time.LocalDate;
+import java.util.UUID;
 
 /**
  * This is a class representing a Habit Event.
@@ -39,15 +40,18 @@ import java.time.LocalDate;
  * @author Claire Martin
  */
 public class HabitEvent implements Serializable {
+    private String id;
     private String habit; //required
     private String comment;
     private String image;
+    private String placeholder;
     private int day;
     private int month;
     private int year;
     private double lat;
     private double lon;
     private boolean hasLocation;
+    private String geohash;
 
     /**
      * Empty constructor for Firestore Compatibility.
@@ -64,6 +68,7 @@ public class HabitEvent implements Serializable {
      */
     @RequiresApi(api = Build.VERSION_CODES.O)
     HabitEvent(String habit, String comment, String image, LocalDate date, LatLng location){
+        id = UUID.randomUUID().toString();
         setHabit(habit);
         setComment(comment);
         setImage(image);
@@ -80,6 +85,7 @@ public class HabitEvent implements Serializable {
      */
     @RequiresApi(api = Build.VERSION_CODES.O)
     HabitEvent(String habit, String image, LocalDate date, LatLng location){
+        id = UUID.randomUUID().toString();
         setHabit(habit);
         setImage(image);
         setDate(date);
@@ -96,6 +102,7 @@ public class HabitEvent implements Serializable {
      */
     @RequiresApi(api = Build.VERSION_CODES.O)
     HabitEvent(String habit, String comment, LocalDate date, String img){
+        id = UUID.randomUUID().toString();
         setHabit(habit);
         setComment(comment);
         setDate(date);
@@ -111,6 +118,7 @@ public class HabitEvent implements Serializable {
      */
     @RequiresApi(api = Build.VERSION_CODES.O)
     HabitEvent(String habit, LocalDate date, LatLng location){
+        id = UUID.randomUUID().toString();
         setHabit(habit);
         setDate(date);
         setLocation(location);
@@ -124,12 +132,21 @@ public class HabitEvent implements Serializable {
      */
     @RequiresApi(api = Build.VERSION_CODES.O)
     HabitEvent(String habit, String comment, LocalDate date) {
+        id = UUID.randomUUID().toString();
         setHabit(habit);
         setDate(date);
         setComment(comment);
         hasLocation = false;
     }
 
+    /**
+     * Getter for id.
+     * @return the id of this event, used as its document id in Firestore
+     */
+    public String getId() {
+        return id;
+    }
+
     /**
      * Getter for habit name.
      * @return the name of the habit this event belongs to
@@ -154,6 +171,14 @@ public class HabitEvent implements Serializable {
         return image;
     }
 
+    /**
+     * Getter for the image placeholder.
+     * @return a tiny Base64 encoded preview of the image, or null
+     */
+    public String getPlaceholder() {
+        return placeholder;
+    }
+
     /**
      * Gets the day of month for this event.
      * @return the day
@@ -178,6 +203,23 @@ public class HabitEvent implements Serializable {
         return year;
     }
 
+    /**
+     * Gets the date as a single sortable number, yyyymmdd. It is saved with
+     * the event so the events collection can be ordered by date.
+     * @return the date key
+     */
+    public int getDateKey() {
+        return year * 10000 + month * 100 + day;
+    }
+
+    /**
+     * Setter for the saved date key, so Firestore can read events that have
+     * one. The key is always computed from the date, so the saved value is
+     * not kept.
+     * @param dateKey the saved date key
+     */
+    public void setDateKey(int dateKey) {}
+
     /**
      * Getter for latitude.
      * @return latitude of Habit event
@@ -194,6 +236,14 @@ public class HabitEvent implements Serializable {
         return lon;
     }
 
+    /**
+     * Getter for geohash.
+     * @return the geohash of this event's location, or null if it has none
+     */
+    public String getGeohash() {
+        return geohash;
+    }
+
     /**
      * Getter for whether the habit event has a location.
      * @return true if the habit event has a location, false if not
@@ -202,6 +252,14 @@ public class HabitEvent implements Serializable {
         return hasLocation;
     }
 
+    /**
+     * Setter for id.
+     * @param id the id of this event
+     */
+    public void setId(String id) {
+        this.id = id;
+    }
+
     /**
      * Setter for habit.
      * @param habit the title of the habit this event belongs to
@@ -230,6 +288,15 @@ public class HabitEvent implements Serializable {
         image = img;
     }
 
+    /**
+     * Setter for the image placeholder.
+     * @param placeholder a tiny Base64 encoded preview of the image, see
+     *                    ImagePlaceholder
+     */
+    public void setPlaceholder(String placeholder) {
+        this.placeholder = placeholder;
+    }
+
     /**
      * Setter for date.
      * @param date for Habit event
@@ -280,6 +347,16 @@ public class HabitEvent implements Serializable {
         this.lat = location.latitude;
         this.lon = location.longitude;
         hasLocation = true;
+        // keep the geohash in sync so location queries find this event
+        geohash = GeoHash.encode(lat, lon, GeoHash.MAX_PRECISION);
+    }
+
+    /**
+     * Setter for geohash.
+     * @param geohash the geohash of this event's location
+     */
+    public void setGeohash(String geohash) {
+        this.geohash = geohash;
     }
 
     /**
@@ -288,6 +365,61 @@ public class HabitEvent implements Serializable {
      */
     public void setHasLocation(boolean b) {
         hasLocation = b;
+        if (!b) {
+            // no location, so keep it out of location queries
+            geohash = null;
+        }
+    }
+
+    /**
+     * Makes a copy of this event that can be changed without changing it.
+     * @return the copy
+     */
+    public HabitEvent copy() {
+        HabitEvent copy = new HabitEvent();
+        copy.id = id;
+        copy.habit = habit;
+        copy.comment = comment;
+        copy.image = image;
+        copy.placeholder = placeholder;
+        copy.day = day;
+        copy.month = month;
+        copy.year = year;
+        copy.lat = lat;
+        copy.lon = lon;
+        copy.hasLocation = hasLocation;
+        copy.geohash = geohash;
+        return copy;
     }
 
+    /**
+     * Overriding equals method. Events are the same if they have the same
+     * id, so a copy loaded from the database matches the original.
+     * @param o object to compare to
+     * @return true if equals, false if not
+     */
+    @Override
+    public boolean equals(Object o) {
+        // Object is itself
+        if (o == this) {
+            return true;
+        }
+
+        // Object is not a HabitEvent, or either event has no id
+        if (!(o instanceof HabitEvent) || id == null) {
+            return false;
+        }
+
+        // Compare ids
+        return id.equals(((HabitEvent) o).getId());
+    }
+
+    /**
+     * Overriding hashCode to match equals.
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return id == null ? System.identityHashCode(this) : id.hashCode();
+    }
 }
@@ -23,63 +23,271 @@
 
 package com.example.oldhabitsdiehard;
 
-import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
+import android.widget.AdapterView;
+import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /**
- * Custom adapter for Habit Events
+ * Custom adapter for Habit Events.
+ * Events are submitted as a list of Row snapshots, which are diffed on a
+ * background thread so only rows that actually changed are rebound.
  *
  * @author Rowan Tilroe
  * @author Filippo Ciandy
  * @author Claire Martin
  */
-public class HabitEventAdapter extends ArrayAdapter<HabitEvent> {
-    private Context context;
-    private User user;
+public class HabitEventAdapter extends ListAdapter<HabitEventAdapter.Row, HabitEventAdapter.ViewHolder> {
+    // payload flags for partial binds
+    private static final int PAYLOAD_COMMENT = 1;
+    private static final int PAYLOAD_IMAGE = 2;
+
+    private final AdapterView.OnItemClickListener itemClickListener;
+    private final StableIds stableIds = new StableIds();
+
+    /**
+     * The fields of a habit event that a row displays, copied when the list is
+     * submitted. Events are edited in place, so the copy is what lets the
+     * differ see that an edited event changed.
+     */
+    public static class Row {
+        private final HabitEvent event;
+        private final String id;
+        private final String comment;
+        private final String image;
+        private final String placeholder;
+
+        /**
+         * Constructor
+         * @param event the habit event to snapshot
+         * @param id the key of the row, the event id if it has one
+         */
+        Row(HabitEvent event, String id) {
+            this.event = event;
+            this.id = id;
+            this.comment = event.getComment();
+            this.image = event.getImage();
+            this.placeholder = event.getPlaceholder();
+        }
+    }
+
+    /**
+     * Compares rows by event id, and their contents by the displayed fields.
+     */
+    private static final DiffUtil.ItemCallback<Row> DIFF = new DiffUtil.ItemCallback<Row>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Row oldRow, @NonNull Row newRow) {
+            return oldRow.id.equals(newRow.id);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Row oldRow, @NonNull Row newRow) {
+            return Objects.equals(oldRow.comment, newRow.comment)
+                    && Objects.equals(oldRow.image, newRow.image);
+        }
+
+        /**
+         * Gets which fields changed, so the row can be partially rebound.
+         * @param oldRow the old row
+         * @param newRow the new row
+         * @return the changed fields as payload flags
+         */
+        @Override
+        public Object getChangePayload(@NonNull Row oldRow, @NonNull Row newRow) {
+            int changed = 0;
+            if (!Objects.equals(oldRow.comment, newRow.comment)) {
+                changed |= PAYLOAD_COMMENT;
+            }
+            if (!Objects.equals(oldRow.image, newRow.image)) {
+                changed |= PAYLOAD_IMAGE;
+            }
+            return changed;
+        }
+    };
 
     /**
      * Constructor
-     * @param context the current context
-     * @param user the current user
+     * @param itemClickListener a listener to see if a habit event was clicked
      */
-    public HabitEventAdapter(Context context, User user) {
-        super(context, 0, user.getHabitEvents());
-        this.user = user;
-        this.context = context;
+    public HabitEventAdapter(AdapterView.OnItemClickListener itemClickListener) {
+        super(DIFF);
+        this.itemClickListener = itemClickListener;
+        setHasStableIds(true);
     }
 
     /**
-     * Get view for a list of HabitEvents.
-     * @param position position in the list
-     * @param convertView
-     * @param parent
-     * @return the view
+     * Shows a new list of habit events. The list is copied, so the caller can
+     * keep changing it and submit it again after each change.
+     * @param events the habit events to show
+     */
+    public void submitEvents(List<HabitEvent> events) {
+        List<Row> rows = new ArrayList<Row>(events.size());
+        // how many events without an id had each derived key so far
+        Map<String, Integer> seen = new HashMap<String, Integer>();
+        for (HabitEvent event : events) {
+            String id = event.getId();
+            if (id == null) {
+                // events from before ids existed are keyed by what they hold,
+                // numbered so identical events still get different keys
+                String key = event.getHabit() + "/" + event.getDateKey() + "/" + event.getComment();
+                Integer count = seen.get(key);
+                seen.put(key, count == null ? 1 : count + 1);
+                id = "legacy/" + key + "/" + (count == null ? 0 : count);
+            }
+            rows.add(new Row(event, id));
+        }
+        submitList(rows);
+    }
+
+    /**
+     * Gets the habit event shown at a position.
+     * @param position the position in the list
+     * @return the habit event
+     */
+    public HabitEvent getEvent(int position) {
+        return getItem(position).event;
+    }
+
+    /**
+     * Gets the stable id of the row at a position.
+     * @param position the position in the list
+     * @return the id
+     */
+    @Override
+    public long getItemId(int position) {
+        return stableIds.get(getItem(position).id);
+    }
+
+    /**
+     * Inflates a row from habitevent_content.
+     * @param parent the parent ViewGroup, cannot be null
+     * @param viewType the type of view
+     * @return a ViewHolder for the row
      */
     @NonNull
     @Override
-    public View getView(int position, @Nullable View convertView, @NonNull ViewGroup parent) {
-        // get the view
-        View view = convertView;
-        if(view == null){
-            // if view was not given, inflate it from the layout
-            view = LayoutInflater.from(context).inflate(R.layout.habitevent_content, parent,false);
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.habitevent_content, parent, false);
+        return new ViewHolder(view);
+    }
+
+    /**
+     * Binds every field of a row.
+     * @param holder the row's ViewHolder
+     * @param position the position in the list
+     */
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        Row row = getItem(position);
+        bindComment(holder, row);
+        bindImage(holder, row);
+    }
+
+    /**
+     * Binds only the fields of a row that changed, if the change is known.
+     * @param holder the row's ViewHolder
+     * @param position the position in the list
+     * @param payloads the payload flags from the differ, empty for a full bind
+     */
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
         }
-        // get the habit event
-        HabitEvent habitEvent = user.getHabitEvents().get(position);
+        int changed = 0;
+        for (Object payload : payloads) {
+            changed |= (Integer) payload;
+        }
+        Row row = getItem(position);
+        if ((changed & PAYLOAD_COMMENT) != 0) {
+            bindComment(holder, row);
+        }
+        if ((changed & PAYLOAD_IMAGE) != 0) {
+            bindImage(holder, row);
+        }
+    }
 
-        // set the textview to display the event comment
-        TextView habitEventTitle = view.findViewById(R.id.habitevent_title);
-        habitEventTitle.setText(habitEvent.getComment());
+    /**
+     * Sets the textview to display the event comment.
+     * @param holder the row's ViewHolder
+     * @param row the row
+     */
+    private void bindComment(ViewHolder holder, Row row) {
+        holder.title.setText(row.comment);
+    }
 
-        return view;
+    /**
+     * Lazily loads the event's thumbnail, if it has a photo.
+     * @param holder the row's ViewHolder
+     * @param row the row
+     */
+    private void bindImage(ViewHolder holder, Row row) {
+        if (row.image != null) {
+            ThumbnailLoader.getInstance().load(row.image, row.placeholder, holder.thumbnail);
+        } else {
+            ThumbnailLoader.getInstance().clear(holder.thumbnail);
+        }
+    }
+
+    /**
+     * Starts downloading the thumbnails of the rows just past the visible ones,
+     * so they are ready by the time they are scrolled to.
+     * @param from the first position to prefetch
+     * @param count the number of positions to prefetch
+     */
+    public void prefetch(int from, int count) {
+        List<Row> rows = getCurrentList();
+        int end = Math.min(rows.size(), from + count);
+        for (int i = Math.max(0, from); i < end; i++) {
+            String image = rows.get(i).image;
+            if (image != null) {
+                ThumbnailLoader.getInstance().prefetch(image);
+            }
+        }
+    }
+
+    /**
+     * Holds the views of a habit event row.
+     */
+    public class ViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener {
+        TextView title;
+        ImageView thumbnail;
+
+        /**
+         * Constructor
+         * @param itemView the row view, cannot be null
+         */
+        public ViewHolder(@NonNull View itemView) {
+            super(itemView);
+            title = itemView.findViewById(R.id.habitevent_title);
+            thumbnail = itemView.findViewById(R.id.habitevent_thumbnail);
+            itemView.setOnClickListener(this);
+        }
+
+        /**
+         * Passes a click on the row to the adapter's listener.
+         * @param v the row that was clicked
+         */
+        @Override
+        public void onClick(View v) {
+            int position = getAdapterPosition();
+            if (position != RecyclerView.NO_POSITION && itemClickListener != null) {
+                itemClickListener.onItemClick(null, v, position, getItemId());
+            }
+        }
     }
 }
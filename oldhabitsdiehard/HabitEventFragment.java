@@ -47,6 +47,7 @@ import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.DatePicker;
 import android.widget.EditText;
+import android.widget.FrameLayout;
 import android.widget.ImageView;
 import android.widget.Spinner;
 import android.widget.TextView;
@@ -58,23 +59,25 @@ import androidx.annotation.RequiresApi;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.DialogFragment;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.google.android.gms.maps.CameraUpdateFactory;
 import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.GoogleMapOptions;
 import com.google.android.gms.maps.OnMapReadyCallback;
+import com.google.android.gms.maps.model.CameraPosition;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
 import com.google.android.gms.tasks.OnFailureListener;
 import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.android.gms.tasks.Task;
 import com.google.firebase.storage.StorageReference;
-import com.google.firebase.storage.UploadTask;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.UUID;
 
 /**
  * A class for the fragment allowing the user to add, edit, view or delete
@@ -95,26 +98,34 @@ public class HabitEventFragment extends DialogFragment implements View.OnClickLi
     private Button addLocationButton;
     private Button removeLocationButton;
     private TextView locationText;
+    private FrameLayout mapContainer;
     private MyMapView mapView;
+    private boolean liteMode;
+    private Bundle mapViewBundle;
     private Marker chosenLocation;
     private boolean isLocationSaved;
+    private boolean imageChanged;
     private GoogleMap myGoogleMap;
     public LatLng markerLatLng;
 
     // constants
     private static final String MAPVIEW_BUNDLE_KEY = "MapViewBundleKey";
+    private static final String MAP_EDITING_KEY = "MapEditingKey";
     private static final int LOCATION_PERMISSION_REQUEST_CODE = 1;
     static final int REQUEST_IMAGE_GET = 1;
     static final int REQUEST_IMAGE_CAPTURE = 2;
 
     /**
-     * A listener interface for this fragment to interact with the calling activity.
+     * A listener interface for this fragment to interact with the calling
+     * activity. Each method returns the task writing the change, so images
+     * the event no longer references are only deleted once it is written.
      */
     public interface onFragmentInteractionListener {
         // abstract methods to be implemented in the activity classes
-        void addHabitEvent(HabitEvent event);
-        void editHabitEvent(HabitEvent event);
-        void deleteHabitEvent(HabitEvent event);
+        Task<Void> addHabitEvent(HabitEvent event);
+        Task<Void> editHabitEvent(HabitEvent event);
+        Task<Void> deleteHabitEvent(HabitEvent event);
+        Task<Void> setHabitEventImage(HabitEvent event, String image, String placeholder);
     }
 
     /**
@@ -141,13 +152,15 @@ public class HabitEventFragment extends DialogFragment implements View.OnClickLi
      */
     @Override
     public void onAttach(Context context){
-        // get the current user and the database
-        user = CurrentUser.get();
-        db = UserDatabase.getInstance();
-        db.updateUser(user);
         super.onAttach(context);
-        // check if the context is an instance of this fragment listener
-        if(context instanceof HabitEventFragment.onFragmentInteractionListener){
+        // get the current user shared by the main screens and the database
+        user = new ViewModelProvider(requireActivity()).get(UserViewModel.class).getCurrentUser();
+        db = UserDatabase.getInstance();
+        // the listener is the screen that showed this dialog
+        if(getParentFragment() instanceof HabitEventFragment.onFragmentInteractionListener){
+            // set the listener
+            listener = (HabitEventFragment.onFragmentInteractionListener) getParentFragment();
+        }else if(context instanceof HabitEventFragment.onFragmentInteractionListener){
             // set the listener
             listener = (HabitEventFragment.onFragmentInteractionListener) context;
         }else {
@@ -167,8 +180,6 @@ public class HabitEventFragment extends DialogFragment implements View.OnClickLi
     @NonNull
     @Override
     public Dialog onCreateDialog(@Nullable Bundle savedInstanceState) {
-        // get the current user
-        db.updateUser(user);
         // get storage reference to store images in FireBase
         StorageReference storageRef = db.getStorageRef();
 
@@ -189,19 +200,18 @@ public class HabitEventFragment extends DialogFragment implements View.OnClickLi
         // default not saving location
         isLocationSaved = false;
         markerLatLng = null;
+        imageChanged = false;
 
-        // set the map view bundle
-        Bundle mapViewBundle = null;
+        // the map is only created once it is needed, see createMap
+        mapContainer = view.findViewById(R.id.mapContainer);
+        mapView = null;
+        mapViewBundle = null;
+        boolean mapEditing = false;
         if (savedInstanceState != null) {
             // get the map view bundle if it was saved
             mapViewBundle = savedInstanceState.getBundle(MAPVIEW_BUNDLE_KEY);
+            mapEditing = savedInstanceState.getBoolean(MAP_EDITING_KEY);
         }
-        // get the mapView object
-        mapView = view.findViewById(R.id.mapView);
-        // create the mapView
-        mapView.onCreate(mapViewBundle);
-        // synchronize mapView
-        mapView.getMapAsync(this);
 
         // create a list of habits to populate the spinner
         // the user can only select habits which are already part of the current user
@@ -221,6 +231,11 @@ public class HabitEventFragment extends DialogFragment implements View.OnClickLi
         addLocationButton.setOnClickListener(this);
         removeLocationButton.setOnClickListener(this);
 
+        if (mapEditing) {
+            // the user was choosing a location before the state was saved
+            createMap(false);
+        }
+
         // build the dialog
         AlertDialog.Builder builder = new AlertDialog.Builder(getContext());
 
@@ -248,8 +263,12 @@ public class HabitEventFragment extends DialogFragment implements View.OnClickLi
                 double lat = myEvent.getLat();
                 double lon = myEvent.getLon();
                 markerLatLng = new LatLng(lat, lon);
+                // keep the location unless the user removes it
+                isLocationSaved = true;
                 // set the text to show the location is saved
                 locationText.setText("Location is saved!");
+                // show a static preview of the location
+                createMap(true);
             }
 
             // get the image reference string for this event
@@ -257,6 +276,12 @@ public class HabitEventFragment extends DialogFragment implements View.OnClickLi
 
             // if the image reference string exists
             if (imgString != null) {
+                // show the placeholder until the full image arrives
+                Bitmap placeholder = ImagePlaceholder.decode(myEvent.getPlaceholder());
+                if (placeholder != null) {
+                    img.setImageBitmap(placeholder);
+                }
+
                 // we have an image so get its reference
                 StorageReference imgRef = storageRef.child(imgString);
 
@@ -301,13 +326,13 @@ public class HabitEventFragment extends DialogFragment implements View.OnClickLi
                         public void onClick(DialogInterface dialogInterface, int i) {
                             // get reference string for the image
                             String refString = myEvent.getImage();
+                            // delete habit event from the list
+                            Task<Void> deleted = listener.deleteHabitEvent(myEvent);
                             if (refString != null) {
-                                // if this event had an image, we delete it from firebase storage
-                                StorageReference imgRef = storageRef.child(refString);
-                                imgRef.delete();
+                                // if this event had an image, we delete it from
+                                // firebase storage once the event is gone
+                                deleted.addOnSuccessListener(done -> deleteImage(storageRef, refString));
                             }
-                            // delete habit event from the list
-                            listener.deleteHabitEvent(myEvent);
                         }
                     })
                     .setPositiveButton("OK", new DialogInterface.OnClickListener() {
@@ -345,64 +370,18 @@ public class HabitEventFragment extends DialogFragment implements View.OnClickLi
                                 myEvent.setHasLocation(false);
                             }
 
-                            // get updated image if it exists
-                            if (img.getDrawable() != null) {
-                                // create reference for existing image if there is one
-                                String refString = myEvent.getImage();
-                                if (refString != null) {
-                                    // delete existing image if there is one
-                                    StorageReference imgRef = storageRef.child(refString);
-                                    imgRef.delete();
-                                }
-
-                                // get the image as a bitmap
-                                Bitmap imgBitmap = ((BitmapDrawable) img.getDrawable()).getBitmap();
-
-                                // generate random uuid to reference image
-                                UUID uuid = UUID.randomUUID();
-                                String uuidStr = uuid.toString();
-
-                                // create reference for this image
-                                String newString = user.getUsername() + "/" + uuidStr + ".jpg";
-                                StorageReference imgRef = storageRef.child(newString);
-
-                                // convert image to byte array
-                                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                                imgBitmap.compress(Bitmap.CompressFormat.JPEG, 100, baos);
-                                byte[] data = baos.toByteArray();
-
-                                // upload image to storage
-                                UploadTask uploadTask = imgRef.putBytes(data);
-                                uploadTask.addOnFailureListener(new OnFailureListener() {
-                                    /**
-                                     * If the image upload fails, we display an
-                                     * error message.
-                                     * @param e the exception that occurred
-                                     */
-                                    @Override
-                                    public void onFailure(@NonNull Exception e) {
-                                        Toast.makeText(getActivity(), "Image upload failed!", Toast.LENGTH_LONG).show();
-                                        myEvent.setImage(newString);
-                                    }
-                                }).addOnSuccessListener(new OnSuccessListener<UploadTask.TaskSnapshot>() {
-                                    /**
-                                     * If the image upload is successful, we
-                                     * add the image to the selected habit event.
-                                     * @param taskSnapshot the upload task
-                                     */
-                                    @Override
-                                    public void onSuccess(UploadTask.TaskSnapshot taskSnapshot) {
-                                        // add the habit event
-                                        myEvent.setImage(newString);
-                                    }
-                                });
-                            }
-
                             // update event with new info
                             myEvent.setHabit(habitName);
                             myEvent.setComment(comment);
                             myEvent.setDate(date);
 
+                            if (imageChanged && img.getDrawable() != null) {
+                                // save the event now, the new image is added once it is stored
+                                Bitmap imgBitmap = ((BitmapDrawable) img.getDrawable()).getBitmap();
+                                uploadThenCommit(imgBitmap, myEvent, false);
+                                return;
+                            }
+
                             // add the habit event to the listener
                             listener.editHabitEvent(myEvent);
                         }
@@ -450,47 +429,10 @@ public class HabitEventFragment extends DialogFragment implements View.OnClickLi
 
                             // check if an image was saved
                             if (img.getDrawable() != null) {
-                                // get image as a bitmap if there is one
+                                // add the event now, the image is added once it is stored
                                 Bitmap imgBitmap = ((BitmapDrawable) img.getDrawable()).getBitmap();
-
-                                // generate random uuid to reference image
-                                UUID uuid = UUID.randomUUID();
-                                String uuidStr = uuid.toString();
-
-                                // create reference for this image
-                                String refString = user.getUsername() + "/" + uuidStr + ".jpg";
-                                StorageReference imgRef = storageRef.child(refString);
-
-                                // convert image to byte array
-                                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                                imgBitmap.compress(Bitmap.CompressFormat.JPEG, 100, baos);
-                                byte[] data = baos.toByteArray();
-
-                                // upload image to storage
-                                UploadTask uploadTask = imgRef.putBytes(data);
-                                uploadTask.addOnFailureListener(new OnFailureListener() {
-                                    /**
-                                     * If the upload fails, print an error
-                                     * message.
-                                     * @param e the exception that occurred
-                                     */
-                                    @Override
-                                    public void onFailure(@NonNull Exception e) {
-                                        Toast.makeText(getActivity(), "Image upload failed!", Toast.LENGTH_LONG).show();
-                                        newEvent.setImage(refString);
-                                    }
-                                }).addOnSuccessListener(new OnSuccessListener<UploadTask.TaskSnapshot>() {
-                                    /**
-                                     * If the upload is successful, add the
-                                     * image to the event.
-                                     * @param taskSnapshot the upload task
-                                     */
-                                    @Override
-                                    public void onSuccess(UploadTask.TaskSnapshot taskSnapshot) {
-                                        // add the image to the new event
-                                        newEvent.setImage(refString);
-                                    }
-                                });
+                                uploadThenCommit(imgBitmap, newEvent, true);
+                                return;
                             }
                             // add the new event to the list
                             listener.addHabitEvent(newEvent);
@@ -499,6 +441,156 @@ public class HabitEventFragment extends DialogFragment implements View.OnClickLi
         }
     }
 
+    /**
+     * Saves the habit event right away, then queues its image for upload and
+     * points the event at the image in a single update once it is stored. The
+     * event never references an image that does not exist, and if the app is
+     * closed during the upload only the image is lost, not the event. An
+     * edited event keeps its old image until the new one replaces it.
+     * @param imgBitmap the image to upload
+     * @param event the habit event the image belongs to
+     * @param isNew true if the event is being added, false if edited
+     */
+    private void uploadThenCommit(Bitmap imgBitmap, HabitEvent event, boolean isNew) {
+        // the dialog is gone by the time the upload finishes, so hold the app context
+        Context appContext = getContext().getApplicationContext();
+        String oldRef = event.getImage();
+        String newRef = ImageUploadQueue.newImageRef(user.getUsername());
+        UploadNotifier notifier = new UploadNotifier(appContext, newRef);
+
+        // saving gives a new event its id, which the image update needs
+        commit(event, isNew);
+
+        ImageUploadQueue.getInstance().enqueue(appContext, imgBitmap, newRef, new ImageUploadQueue.UploadListener() {
+            /**
+             * Shows the progress in a notification, since the dialog has
+             * been dismissed.
+             * @param percent the percentage uploaded
+             */
+            @Override
+            public void onProgress(int percent) {
+                notifier.onProgress(percent);
+            }
+
+            /**
+             * The image is stored, so point the event at it, then remove the
+             * old image.
+             * @param refString the reference string of the stored image
+             * @param placeholder the placeholder string for the image
+             */
+            @Override
+            public void onUploaded(String refString, String placeholder) {
+                notifier.onUploaded();
+                listener.setHabitEventImage(event, refString, placeholder)
+                        .addOnSuccessListener(done -> {
+                            if (oldRef != null) {
+                                // the old image is no longer referenced
+                                deleteImage(db.getStorageRef(), oldRef);
+                            }
+                        })
+                        .addOnFailureListener(e -> {
+                            // the event was deleted meanwhile, nothing references the new image
+                            deleteImage(db.getStorageRef(), refString);
+                        });
+            }
+
+            /**
+             * The image could not be stored, the event stays saved without it.
+             * @param e the exception that occurred
+             */
+            @Override
+            public void onFailed(Exception e) {
+                notifier.onFailed();
+                Toast.makeText(appContext, "Image upload failed!", Toast.LENGTH_LONG).show();
+            }
+        });
+    }
+
+    /**
+     * Passes a finished habit event to the listener.
+     * @param event the habit event to save
+     * @param isNew true if the event is being added, false if edited
+     * @return the task writing the event
+     */
+    private Task<Void> commit(HabitEvent event, boolean isNew) {
+        if (isNew) {
+            return listener.addHabitEvent(event);
+        }
+        return listener.editHabitEvent(event);
+    }
+
+    /**
+     * Deletes an image and its thumbnail from firebase storage.
+     * @param storageRef the root of the storage bucket
+     * @param refString the reference string of the image
+     */
+    private static void deleteImage(StorageReference storageRef, String refString) {
+        storageRef.child(refString).delete();
+        storageRef.child(ImageUploadQueue.thumbRef(refString)).delete();
+    }
+
+    /**
+     * Creates the map on demand. Lite mode gives a cheap static preview of a
+     * saved location; the full interactive map is only created when the user
+     * wants to choose a location. A lite map is replaced by a full map when
+     * needed, but never the other way around.
+     * @param lite true for a lite mode preview, false for an interactive map
+     */
+    private void createMap(boolean lite) {
+        if (mapView != null) {
+            if (lite || !liteMode) {
+                // we already have a map that is good enough
+                return;
+            }
+            // swap the preview for an interactive map
+            destroyMap();
+        }
+        liteMode = lite;
+
+        // start the camera on the saved location if there is one
+        GoogleMapOptions options = new GoogleMapOptions().liteMode(lite);
+        if (markerLatLng != null) {
+            options.camera(CameraPosition.fromLatLngZoom(markerLatLng, 6));
+        }
+
+        // add the map to its container
+        mapView = new MyMapView(getContext(), options);
+        mapContainer.addView(mapView, new FrameLayout.LayoutParams(
+                FrameLayout.LayoutParams.MATCH_PARENT, FrameLayout.LayoutParams.MATCH_PARENT));
+        mapContainer.setVisibility(View.VISIBLE);
+
+        // bring the map up to the same lifecycle state as this fragment
+        mapView.onCreate(mapViewBundle);
+        mapViewBundle = null;
+        Lifecycle.State state = getLifecycle().getCurrentState();
+        if (state.isAtLeast(Lifecycle.State.STARTED)) {
+            mapView.onStart();
+        }
+        if (state.isAtLeast(Lifecycle.State.RESUMED)) {
+            mapView.onResume();
+        }
+        // synchronize mapView
+        mapView.getMapAsync(this);
+    }
+
+    /**
+     * Tears down the current map and removes it from its container.
+     */
+    private void destroyMap() {
+        Lifecycle.State state = getLifecycle().getCurrentState();
+        if (state.isAtLeast(Lifecycle.State.RESUMED)) {
+            mapView.onPause();
+        }
+        if (state.isAtLeast(Lifecycle.State.STARTED)) {
+            mapView.onStop();
+        }
+        mapView.onDestroy();
+        mapContainer.removeView(mapView);
+        mapView = null;
+        myGoogleMap = null;
+        chosenLocation = null;
+    }
+
     /**
      * When the one of the buttons is clicked, we check which button it was
      * and then perform its action.
@@ -523,7 +615,8 @@ public class HabitEventFragment extends DialogFragment implements View.OnClickLi
                 // error
             }
         } else if (view.getId() == R.id.addLocationButton) {
-            // we want to save our location
+            // we want to save our location, so the user needs a map to pick it on
+            createMap(false);
             isLocationSaved = true;
             locationText.setText("Location is saved!");
         } else if (view.getId() == R.id.removeLocationButton) {
@@ -552,6 +645,7 @@ public class HabitEventFragment extends DialogFragment implements View.OnClickLi
             try {
                 // decode the image and display it
                 img.setImageBitmap(ImageDecoder.decodeBitmap(ImageDecoder.createSource(getContext().getContentResolver(), imgUri)));
+                imageChanged = true;
             } catch (IOException e) {
                 // something failed
                 e.printStackTrace();
@@ -563,6 +657,7 @@ public class HabitEventFragment extends DialogFragment implements View.OnClickLi
             Bitmap imageBitmap = (Bitmap) extras.get("data");
             // display the image
             img.setImageBitmap(imageBitmap);
+            imageChanged = true;
         }
     }
 
@@ -581,7 +676,10 @@ public class HabitEventFragment extends DialogFragment implements View.OnClickLi
             outState.putBundle(MAPVIEW_BUNDLE_KEY, mapViewBundle);
         }
         // save the mapview instance state
-        mapView.onSaveInstanceState(mapViewBundle);
+        if (mapView != null) {
+            mapView.onSaveInstanceState(mapViewBundle);
+        }
+        outState.putBoolean(MAP_EDITING_KEY, mapView != null && !liteMode);
     }
 
     /**
@@ -590,7 +688,9 @@ public class HabitEventFragment extends DialogFragment implements View.OnClickLi
     @Override
     public void onResume() {
         super.onResume();
-        mapView.onResume();
+        if (mapView != null) {
+            mapView.onResume();
+        }
     }
 
     /**
@@ -599,7 +699,9 @@ public class HabitEventFragment extends DialogFragment implements View.OnClickLi
     @Override
     public void onStart() {
         super.onStart();
-        mapView.onStart();
+        if (mapView != null) {
+            mapView.onStart();
+        }
     }
 
     /**
@@ -608,7 +710,9 @@ public class HabitEventFragment extends DialogFragment implements View.OnClickLi
     @Override
     public void onStop() {
         super.onStop();
-        mapView.onStop();
+        if (mapView != null) {
+            mapView.onStop();
+        }
     }
 
     /**
@@ -622,6 +726,17 @@ public class HabitEventFragment extends DialogFragment implements View.OnClickLi
         // save the map in a global variable
         myGoogleMap = map;
 
+        if (liteMode) {
+            // the preview is static, so just mark the saved location
+            chosenLocation = myGoogleMap.addMarker(
+                    new MarkerOptions()
+                            .position(markerLatLng)
+                            .title("Marker")
+                            .draggable(false)
+            );
+            return;
+        }
+
         // allow the user to zoom in or out
         myGoogleMap.getUiSettings().setZoomControlsEnabled(true);
 
@@ -724,7 +839,9 @@ public class HabitEventFragment extends DialogFragment implements View.OnClickLi
      */
     @Override
     public void onPause() {
-        mapView.onPause();
+        if (mapView != null) {
+            mapView.onPause();
+        }
         super.onPause();
     }
 
@@ -733,7 +850,9 @@ public class HabitEventFragment extends DialogFragment implements View.OnClickLi
      */
     @Override
     public void onDestroy() {
-        mapView.onDestroy();
+        if (mapView != null) {
+            mapView.onDestroy();
+        }
         super.onDestroy();
     }
 
@@ -743,6 +862,8 @@ public class HabitEventFragment extends DialogFragment implements View.OnClickLi
     @Override
     public void onLowMemory() {
         super.onLowMemory();
-        mapView.onLowMemory();
+        if (mapView != null) {
+            mapView.onLowMemory();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,357 @@
+/*
+ *  HabitEventListFragment
+ *
+ *  Version 1.0
+ *
+ *  November 4, 2021
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import android.content.Intent;
+import android.os.Build;
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
+import android.widget.Button;
+import android.widget.Spinner;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.material.floatingactionbutton.FloatingActionButton;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * This class shows the Habit event list screen where users can see all their habit events.
+ * Events are shown newest first, optionally for a single habit, and are paged
+ * in from the database by a HabitEventPager as the list scrolls.
+ *
+ * @author Filippo Ciandy
+ * @author Claire Martin
+ */
+public class HabitEventListFragment extends Fragment implements HabitEventFragment.onFragmentInteractionListener {
+    private RecyclerView habitEventListView;
+    private HabitEventAdapter habitEventAdapter;
+    private HabitEventPager pager;
+    private FloatingActionButton addHabitEventButton;
+    private String habitFilter;
+    private User user;
+    private UserDatabase db;
+    private UserViewModel viewModel;
+
+    /**
+     * Defines action to take when the screen's view is created.
+     * @param inflater the layout inflater
+     * @param container the parent view
+     * @param savedInstanceState the saved state
+     * @return the screen's view
+     */
+    @RequiresApi(api = Build.VERSION_CODES.O)
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
+        View root = inflater.inflate(R.layout.habitevent_list, container, false);
+
+        // get the current user shared by all screens
+        viewModel = new ViewModelProvider(requireActivity()).get(UserViewModel.class);
+        user = viewModel.getCurrentUser();
+        db = UserDatabase.getInstance();
+
+        // initialize views
+        habitEventListView = root.findViewById(R.id.habitevent_list);
+        LinearLayoutManager layoutManager = new LinearLayoutManager(getContext());
+        habitEventListView.setLayoutManager(layoutManager);
+
+        // set adapter
+        habitEventAdapter = new HabitEventAdapter(new AdapterView.OnItemClickListener() {
+            /**
+             * Defines action to take when a habit event in the list is clicked.
+             * @param parent
+             * @param view
+             * @param position the position in the list of the event which was
+             *                 clicked
+             * @param id
+             */
+            @Override
+            public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
+                // get the clicked habit event
+                final HabitEvent habitEvent = habitEventAdapter.getEvent(position);
+                // create a new fragment to edit the habit
+                HabitEventFragment newFragment = HabitEventFragment.newInstance(habitEvent);
+                newFragment.show(getChildFragmentManager(), "EDIT_HABIT_EVENT");
+            }
+        });
+        habitEventListView.setAdapter(habitEventAdapter);
+
+        // filter the list by habit, the choices are filled in when the user is observed
+        ArrayAdapter<String> filterAdapter = new ArrayAdapter<String>(requireContext(), android.R.layout.simple_spinner_dropdown_item, new ArrayList<String>());
+        Spinner habitFilterSpinner = root.findViewById(R.id.habit_filter);
+        habitFilterSpinner.setAdapter(filterAdapter);
+        habitFilterSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            /**
+             * Starts paging through the chosen habit's events.
+             * @param parent the spinner
+             * @param view the chosen item
+             * @param position the position of the chosen item
+             * @param id the id of the chosen item
+             */
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                String habit = (position == 0) ? null : filterAdapter.getItem(position);
+                if (!Objects.equals(habit, habitFilter)) {
+                    startPaging(habit);
+                }
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {}
+        });
+
+        if (user.getEventsMirrored()) {
+            startPaging(null);
+        } else {
+            // events saved before the events collection existed are copied
+            // there once, before the first page is loaded. They are copied
+            // from the server's copy of the user, not an old cached one
+            viewModel.getConfirmedUser().addOnSuccessListener(confirmed -> {
+                if (!isAdded()) {
+                    return;
+                }
+                if (confirmed.getEventsMirrored()) {
+                    startPaging(habitFilter);
+                    return;
+                }
+                // this runs as a mutation since events without an id are given one
+                viewModel.mutate(changed -> db.mirrorHabitEvents(changed).addOnCompleteListener(task -> {
+                    if (task.isSuccessful()) {
+                        viewModel.mutate(mirrored -> mirrored.setEventsMirrored(true));
+                    }
+                    startPaging(habitFilter);
+                }));
+            });
+        }
+
+        // define the add button
+
+        addHabitEventButton = root.findViewById(R.id.add_habit_event_button);
+        addHabitEventButton.setOnClickListener(new View.OnClickListener() {
+            /**
+             * Defines action to take when add button is clicked.
+             * @param view
+             */
+            @Override
+            public void onClick(View view) {
+                // create new fragment to add the habit
+                new HabitEventFragment().show(getChildFragmentManager(), "ADD_HABIT_EVENT");
+            }
+        });
+
+        // show all of the user's event locations on a map
+        final Button eventMapButton = root.findViewById(R.id.event_map_button);
+        eventMapButton.setOnClickListener(new View.OnClickListener() {
+            /**
+             * Starts the event map activity when the map button is clicked.
+             * @param view the map button
+             */
+            @Override
+            public void onClick(View view) {
+                Intent intent = new Intent(view.getContext(), EventMapActivity.class);
+                startActivity(intent);
+            }
+        });
+
+        // prefetch thumbnails for the next page of rows as the list scrolls
+        habitEventListView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            /**
+             * Prefetch one screen's worth of thumbnails past the visible rows.
+             * @param recyclerView the list
+             * @param dx the horizontal scroll amount
+             * @param dy the vertical scroll amount
+             */
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                int first = layoutManager.findFirstVisibleItemPosition();
+                int last = layoutManager.findLastVisibleItemPosition();
+                if (first != RecyclerView.NO_POSITION) {
+                    int visible = last - first + 1;
+                    habitEventAdapter.prefetch(last + 1, visible);
+                    if (pager != null) {
+                        // load the next or previous page before it is reached
+                        pager.onVisibleRange(first, last);
+                    }
+                }
+            }
+        });
+
+        // habits may be added or deleted on another screen, so the filter
+        // and the add button follow the user
+        viewModel.getUser().observe(getViewLifecycleOwner(), changed -> {
+            user = changed;
+
+            // the first choice shows every habit
+            List<String> filterNames = new ArrayList<String>();
+            filterNames.add("All habits");
+            for (Habit habit : changed.getHabits()) {
+                filterNames.add(habit.getTitle());
+            }
+            filterAdapter.clear();
+            filterAdapter.addAll(filterNames);
+            // keep the chosen habit, or show every habit if it was deleted
+            habitFilterSpinner.setSelection(Math.max(0, filterNames.indexOf(habitFilter)));
+
+            if (changed.getHabits().size() == 0) {
+                // we have no habits, so user is not allowed to add a habit event
+                addHabitEventButton.setVisibility(View.INVISIBLE);
+            } else {
+                addHabitEventButton.setVisibility(View.VISIBLE);
+            }
+        });
+
+        return root;
+    }
+
+    /**
+     * Cancels any thumbnail downloads when the list is closed.
+     */
+    @Override
+    public void onDestroyView() {
+        ThumbnailLoader.getInstance().cancelAll();
+        super.onDestroyView();
+    }
+
+    /**
+     * Starts showing the events of a habit from the newest one.
+     * @param habit the habit to show the events of, or null for all habits
+     */
+    private void startPaging(String habit) {
+        habitFilter = habit;
+        pager = new HabitEventPager(user.getUsername(), habit, new HabitEventPager.Listener() {
+            /**
+             * Diff the loaded events against the shown ones.
+             * @param events the loaded events
+             */
+            @Override
+            public void onEventsChanged(List<HabitEvent> events) {
+                habitEventAdapter.submitEvents(events);
+            }
+
+            /**
+             * Let the user know the events could not be loaded.
+             * @param e the error
+             */
+            @Override
+            public void onLoadFailed(Exception e) {
+                if (getContext() != null) {
+                    Toast.makeText(getContext(), "Could not load habit events", Toast.LENGTH_SHORT).show();
+                }
+            }
+        });
+        pager.refresh();
+    }
+
+    /**
+     * Method to add a habit event.
+     * @param newEvent the event to add
+     * @return the task writing the event to the events collection
+     */
+    @Override
+    public Task<Void> addHabitEvent(HabitEvent newEvent) {
+        // save the event first, which gives it an id
+        Task<Void> written = db.saveHabitEvent(user.getUsername(), newEvent);
+        // show it if it is in the loaded part of the list
+        if (pager != null) {
+            pager.upsert(newEvent);
+        }
+        // add a copy of the habit event to the user, the list's copy may still be edited
+        HabitEvent added = newEvent.copy();
+        viewModel.mutate(changed -> changed.addHabitEvent(added));
+        return written;
+    }
+
+    /**
+     * **NOT IMPLEMENTED**
+     * Method to edit a habit event.
+     * @param event the event to edit
+     * @return the task writing the event to the events collection
+     */
+    @Override
+    public Task<Void> editHabitEvent(HabitEvent event) {
+        if (pager != null) {
+            pager.upsert(event);
+        }
+        // update the event in firestore
+        Task<Void> written = db.saveHabitEvent(user.getUsername(), event);
+        // the event is a copy, so replace the user's original with another copy
+        HabitEvent edited = event.copy();
+        viewModel.mutate(changed -> changed.updateHabitEvent(edited));
+        return written;
+    }
+
+    /**
+     * Method to add an uploaded image to a saved habit event.
+     * @param event the event the image belongs to
+     * @param image the reference string of the image
+     * @param placeholder the placeholder string for the image
+     * @return the task writing the image to the event
+     */
+    @Override
+    public Task<Void> setHabitEventImage(HabitEvent event, String image, String placeholder) {
+        String id = event.getId();
+        Task<Void> written = db.setHabitEventImage(user.getUsername(), id, image, placeholder);
+        if (pager != null && isAdded()) {
+            HabitEvent shown = event.copy();
+            shown.setImage(image);
+            shown.setPlaceholder(placeholder);
+            pager.upsert(shown);
+        }
+        viewModel.mutate(changed -> changed.setHabitEventImage(id, image, placeholder));
+        return written;
+    }
+
+    /**
+     * **NOT IMPLEMENTED**
+     * Method to delete a habit event.
+     * @param event the event to delete
+     * @return the task deleting the event from the events collection
+     */
+    @Override
+    public Task<Void> deleteHabitEvent(HabitEvent event) {
+        // remove event from the list
+        if (pager != null) {
+            pager.remove(event);
+        }
+        // udpate the user in firestore
+        Task<Void> deleted = db.deleteHabitEvent(user.getUsername(), event);
+        viewModel.mutate(changed -> changed.deleteHabitEvent(event));
+        return deleted;
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ *  HabitEventPager
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Pages through a user's habit events, newest first, optionally only for one
+ * habit. Pages are loaded from the events collection as the list scrolls
+ * near either end of what is loaded, and only a bounded window of pages is
+ * kept in memory, so a user with years of events costs the same as a new
+ * user. Pages that fall out of the window are loaded again if they are
+ * scrolled back to.
+ * All methods must be called on the main thread.
+ */
+public class HabitEventPager {
+    // constants
+    public static final int PAGE_SIZE = 30;
+    private static final int MAX_PAGES = 5;
+    private static final int PREFETCH_DISTANCE = PAGE_SIZE / 2;
+
+    private final Query query;
+    private final String habit;
+    private final Listener listener;
+    private final LinkedList<Page> pages = new LinkedList<Page>();
+    private boolean hasBefore = false;
+    private boolean hasAfter = true;
+    private boolean loading = false;
+    private int generation = 0;
+
+    /**
+     * Callback interface for changes to the loaded events.
+     */
+    public interface Listener {
+        void onEventsChanged(List<HabitEvent> events);
+        void onLoadFailed(Exception e);
+    }
+
+    /**
+     * A loaded page of events, with the documents at its ends to continue
+     * loading from.
+     */
+    private static class Page {
+        private final List<HabitEvent> events;
+        private final DocumentSnapshot first;
+        private final DocumentSnapshot last;
+
+        /**
+         * Constructor
+         * @param snapshot the non-empty query result
+         */
+        Page(QuerySnapshot snapshot) {
+            events = new ArrayList<HabitEvent>(snapshot.toObjects(HabitEvent.class));
+            List<DocumentSnapshot> documents = snapshot.getDocuments();
+            for (int i = 0; i < events.size(); i++) {
+                // events saved without an id field are known by their document
+                if (events.get(i).getId() == null) {
+                    events.get(i).setId(documents.get(i).getId());
+                }
+            }
+            first = documents.get(0);
+            last = documents.get(documents.size() - 1);
+        }
+    }
+
+    /**
+     * Constructor
+     * @param username the user whose events to page through
+     * @param habit only show events of this habit, or null for all events
+     * @param listener notified whenever the loaded events change
+     */
+    public HabitEventPager(String username, String habit, Listener listener) {
+        this.query = UserDatabase.getInstance().habitEventsByDate(username, habit);
+        this.habit = habit;
+        this.listener = listener;
+    }
+
+    /**
+     * Drops everything loaded and loads the first page again.
+     */
+    public void refresh() {
+        // results of loads already started are ignored
+        generation++;
+        pages.clear();
+        hasBefore = false;
+        hasAfter = true;
+        loading = false;
+        publish();
+        loadAfter();
+    }
+
+    /**
+     * Tells the pager which events are on screen, so it can load the pages
+     * next to them before they are scrolled to.
+     * @param first the position of the first visible event
+     * @param last the position of the last visible event
+     */
+    public void onVisibleRange(int first, int last) {
+        int size = getEvents().size();
+        if (last >= size - PREFETCH_DISTANCE && hasAfter) {
+            loadAfter();
+        } else if (first < PREFETCH_DISTANCE && hasBefore) {
+            loadBefore();
+        }
+    }
+
+    /**
+     * Gets the loaded events, in display order.
+     * @return the events in the window
+     */
+    public List<HabitEvent> getEvents() {
+        List<HabitEvent> events = new ArrayList<HabitEvent>();
+        for (Page page : pages) {
+            events.addAll(page.events);
+        }
+        return events;
+    }
+
+    /**
+     * Shows an added or edited event, if it falls inside the loaded window.
+     * Otherwise it is shown when its page is loaded.
+     * @param event the event
+     */
+    public void upsert(HabitEvent event) {
+        boolean removed = removeFromPages(event);
+        if (habit != null && !habit.equals(event.getHabit())) {
+            // the event was moved out of the habit being shown
+            if (removed) {
+                publish();
+            }
+            return;
+        }
+        if (pages.isEmpty()) {
+            if (!hasAfter) {
+                // everything was loaded and there was nothing, load it again
+                refresh();
+            }
+            return;
+        }
+
+        // find the first loaded event that sorts after the new one
+        for (Page page : pages) {
+            for (int i = 0; i < page.events.size(); i++) {
+                if (compare(event, page.events.get(i)) < 0) {
+                    if (page == pages.getFirst() && i == 0 && hasBefore) {
+                        // it belongs to a newer page that is not loaded
+                        if (removed) {
+                            publish();
+                        }
+                        return;
+                    }
+                    page.events.add(i, event);
+                    publish();
+                    return;
+                }
+            }
+        }
+        if (!hasAfter) {
+            // it is the oldest event
+            pages.getLast().events.add(event);
+            publish();
+        } else if (removed) {
+            // it belongs to an older page that is not loaded
+            publish();
+        }
+    }
+
+    /**
+     * Stops showing a deleted event.
+     * @param event the event
+     */
+    public void remove(HabitEvent event) {
+        if (removeFromPages(event)) {
+            publish();
+        }
+    }
+
+    /**
+     * Removes an event from whichever page holds it, matched by id.
+     * @param event the event
+     * @return true if it was loaded
+     */
+    private boolean removeFromPages(HabitEvent event) {
+        for (Page page : pages) {
+            if (page.events.remove(event)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Loads the page after the window, dropping the first page if the window
+     * gets too big.
+     */
+    private void loadAfter() {
+        if (loading) {
+            return;
+        }
+        loading = true;
+        int loadGeneration = generation;
+        Query next = pages.isEmpty() ? query : query.startAfter(pages.getLast().last);
+        next.limit(PAGE_SIZE).get().addOnCompleteListener(task -> {
+            if (loadGeneration != generation) {
+                return;
+            }
+            loading = false;
+            if (!task.isSuccessful()) {
+                listener.onLoadFailed(task.getException());
+                return;
+            }
+            QuerySnapshot snapshot = task.getResult();
+            hasAfter = snapshot.size() == PAGE_SIZE;
+            if (!snapshot.isEmpty()) {
+                pages.addLast(new Page(snapshot));
+                if (pages.size() > MAX_PAGES) {
+                    pages.removeFirst();
+                    hasBefore = true;
+                }
+            }
+            publish();
+        });
+    }
+
+    /**
+     * Loads the page before the window, dropping the last page if the window
+     * gets too big.
+     */
+    private void loadBefore() {
+        if (loading || pages.isEmpty()) {
+            return;
+        }
+        loading = true;
+        int loadGeneration = generation;
+        query.endBefore(pages.getFirst().first).limitToLast(PAGE_SIZE).get().addOnCompleteListener(task -> {
+            if (loadGeneration != generation) {
+                return;
+            }
+            loading = false;
+            if (!task.isSuccessful()) {
+                listener.onLoadFailed(task.getException());
+                return;
+            }
+            QuerySnapshot snapshot = task.getResult();
+            hasBefore = snapshot.size() == PAGE_SIZE;
+            if (!snapshot.isEmpty()) {
+                pages.addFirst(new Page(snapshot));
+                if (pages.size() > MAX_PAGES) {
+                    pages.removeLast();
+                    hasAfter = true;
+                }
+            }
+            publish();
+        });
+    }
+
+    /**
+     * Passes the loaded events to the listener.
+     */
+    private void publish() {
+        listener.onEventsChanged(getEvents());
+    }
+
+    /**
+     * Compares events in display order, the same order as the query.
+     * @param a the first event
+     * @param b the second event
+     * @return negative if a is shown before b
+     */
+    private static int compare(HabitEvent a, HabitEvent b) {
+        if (a.getDateKey() != b.getDateKey()) {
+            return Integer.compare(b.getDateKey(), a.getDateKey());
+        }
+        return b.getId().compareTo(a.getId());
+    }
+}
@@ -48,6 +48,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 import androidx.fragment.app.DialogFragment;
+import androidx.lifecycle.ViewModelProvider;
 
 /**
  * A class for the fragment allowing the user to add, edit, view or delete
@@ -71,7 +72,7 @@ public class HabitFragment extends DialogFragment {
     public interface onFragmentInteractionListener {
         // abstract methods to be implemented in the activity classes
         void addHabit(Habit habit);
-        void editHabit(Habit habit);
+        void editHabit(Habit habit, Habit edited);
         void deleteHabit(Habit habit);
     }
 
@@ -97,11 +98,14 @@ public class HabitFragment extends DialogFragment {
      */
     @Override
     public void onAttach(Context context){
-        user = CurrentUser.get();
-        db = UserDatabase.getInstance();
-        db.updateUser(user);
         super.onAttach(context);
-        if(context instanceof HabitFragment.onFragmentInteractionListener){
+        // use the current user shared by the main screens
+        user = new ViewModelProvider(requireActivity()).get(UserViewModel.class).getCurrentUser();
+        db = UserDatabase.getInstance();
+        // the listener is the screen that showed this dialog
+        if(getParentFragment() instanceof HabitFragment.onFragmentInteractionListener){
+            listener = (HabitFragment.onFragmentInteractionListener) getParentFragment();
+        }else if(context instanceof HabitFragment.onFragmentInteractionListener){
             listener = (HabitFragment.onFragmentInteractionListener) context;
         }else {
             throw new RuntimeException(context.toString()+"must implement OnFragmentInteractionListner");
@@ -117,7 +121,6 @@ public class HabitFragment extends DialogFragment {
     @NonNull
     @Override
     public Dialog onCreateDialog(@Nullable Bundle savedInstanceState){
-        db.updateUser(user);
         // get the habit fragment view
         View view = LayoutInflater.from(getActivity()).inflate(R.layout.habit_fragment, null);
         // get info for the habit display items
@@ -234,15 +237,12 @@ public class HabitFragment extends DialogFragment {
                                 // we require a habit title
                                 Toast.makeText(getActivity(), "Please enter a habit title", Toast.LENGTH_LONG).show();
                             } else {
-                                // update the habit with new info
-                                myHabit.setTitle(title);
-                                myHabit.setReason(reason);
-                                myHabit.setPublic(isPublic);
-                                myHabit.setWeekdays(weekdays);
-                                myHabit.setStartDate(date);
+                                // the habit belongs to a user snapshot, so the new
+                                // info is passed on instead of being set on it
+                                Habit edited = new Habit(title, reason, date, weekdays, isPublic);
 
                                 // update habit in listener
-                                listener.editHabit(myHabit);
+                                listener.editHabit(myHabit, edited);
                             }
                         }
                     }).create();
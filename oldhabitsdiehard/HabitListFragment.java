@@ -1,5 +1,5 @@
 /*
- *  HabitListActivity
+ *  HabitListFragment
  *
  *  Version 1.0
  *
@@ -23,62 +23,68 @@
 
 package com.example.oldhabitsdiehard;
 
-import android.content.Intent;
 import android.os.Build;
 import android.os.Bundle;
-import android.view.MenuItem;
+import android.view.LayoutInflater;
 import android.view.View;
+import android.view.ViewGroup;
 import android.widget.AdapterView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
-import androidx.appcompat.app.AppCompatActivity;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.ItemTouchHelper;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.google.android.material.bottomnavigation.BottomNavigationView;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
-import com.google.android.material.navigation.NavigationBarView;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.List;
 
 /**
- * This class represents the Habit List Activity in which the user can view
+ * This class represents the Habit List screen in which the user can view
  * a list of all their habits.
  *
  * @author Claire Martin
  * @author Filippo Ciandy
  */
-public class HabitListActivity extends AppCompatActivity implements HabitFragment.onFragmentInteractionListener {
+public class HabitListFragment extends Fragment implements HabitFragment.onFragmentInteractionListener {
     private ArrayList<Habit> habitList;
     private User user;
     private UserDatabase db;
+    private UserViewModel viewModel;
     private HabitAdapter recyclerAdapter;
     private RecyclerView recyclerView;
 
     /**
-     * When the activity is created, all UI elements are defined and the
+     * When the screen is created, all UI elements are defined and the
      * listeners and created for the habit list and the buttons.
+     * @param inflater the layout inflater
+     * @param container the parent view
      * @param savedInstanceState the saved state
+     * @return the screen's view
      */
     @RequiresApi(api = Build.VERSION_CODES.O)
+    @Nullable
     @Override
-    protected void onCreate(Bundle savedInstanceState) {
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
         // set the view
-        super.onCreate(savedInstanceState);
-        setContentView(R.layout.habit_list);
+        View root = inflater.inflate(R.layout.habit_list, container, false);
 
-        // fetch current user from firebase
-        user = CurrentUser.get();
+        // get the current user shared by all screens
+        viewModel = new ViewModelProvider(requireActivity()).get(UserViewModel.class);
+        user = viewModel.getCurrentUser();
         db = UserDatabase.getInstance();
-        db.updateUser(user);
 
         // create the habit list and set its view
         habitList = user.getHabits();
-        recyclerView = findViewById(R.id.habit_list);
-        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        recyclerView = root.findViewById(R.id.habit_list);
+        recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
 
         // create the adapter
         recyclerAdapter = new HabitAdapter(habitList, new AdapterView.OnItemClickListener() {
@@ -92,11 +98,12 @@ public class HabitListActivity extends AppCompatActivity implements HabitFragmen
              */
             @Override
             public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
-                // get the habit that was clicked
-                final Habit habit = habitList.get(position);
+                // get the habit that was clicked, the rows may have been
+                // dragged since the habit list was last published
+                final Habit habit = recyclerAdapter.getHabit(position);
                 // create the fragment and open it with the chosen habit
                 HabitFragment newFragment = HabitFragment.newInstance(habit);
-                newFragment.show(getSupportFragmentManager(), "EDIT_HABIT");
+                newFragment.show(getChildFragmentManager(), "EDIT_HABIT");
             }
         });
 
@@ -105,8 +112,15 @@ public class HabitListActivity extends AppCompatActivity implements HabitFragmen
         ItemTouchHelper itemTouchHelper = new ItemTouchHelper(simpleCallback);
         itemTouchHelper.attachToRecyclerView(recyclerView);
 
+        // rebuild the rows whenever the user changes, on this or another screen
+        viewModel.getUser().observe(getViewLifecycleOwner(), changed -> {
+            user = changed;
+            habitList = changed.getHabits();
+            refreshRows();
+        });
+
         // define habit add button
-        final FloatingActionButton addHabitButton = findViewById(R.id.add_habit_button);
+        final FloatingActionButton addHabitButton = root.findViewById(R.id.add_habit_button);
         addHabitButton.setOnClickListener(new View.OnClickListener() {
             /**
              * When the add habit button is clicked, the habit fragment is
@@ -116,58 +130,19 @@ public class HabitListActivity extends AppCompatActivity implements HabitFragmen
             @Override
             public void onClick(View view) {
                 // start a new fragment with no habit
-                new HabitFragment().show(getSupportFragmentManager(), "ADD_HABIT");
+                new HabitFragment().show(getChildFragmentManager(), "ADD_HABIT");
             }
         });
 
-        // creating intents for the different activities
-        Intent intentToday = new Intent(this, TodayActivity.class);
-        Intent intentProfile = new Intent(this, ProfileActivity.class);
-        Intent intentEvents = new Intent(this, HabitEventListActivity.class);
-        Intent intentSearch = new Intent(this, SearchActivity.class);
-
-        // initializing navigation in the activity
-        BottomNavigationView bottomNavigationView = (BottomNavigationView)
-                findViewById(R.id.bottom_navigation);
-        bottomNavigationView.setLabelVisibilityMode(NavigationBarView.LABEL_VISIBILITY_LABELED);
-
-        // listener for the navigation buttons
-        bottomNavigationView.setOnNavigationItemSelectedListener(
-                new BottomNavigationView.OnNavigationItemSelectedListener() {
-                    /**
-                     * Switches to a new activity based on which navigation
-                     * button was pressed.
-                     * @param item the item that was chosen
-                     * @return false if the activity fails to start
-                     */
-                    @Override
-                    public boolean onNavigationItemSelected(@NonNull MenuItem item) {
-                        //switching through activities
-                        switch (item.getItemId()) {
-                            case R.id.action_today:
-                                // today button was pressed
-                                startActivity(intentToday);
-                                break;
-                            case R.id.action_events:
-                                // events button was pressed
-                                startActivity(intentEvents);
-                                break;
-                            case R.id.action_profile:
-                                // profile button was pressed
-                                startActivity(intentProfile);
-                                break;
-                            case R.id.action_search:
-                                // search button was pressed
-                                startActivity(intentSearch);
-                                break;
-                        }
-                        return false;
-                    }
-                });
+        return root;
     }
 
     // handles callbacks when a drag or swipe action is done.
     ItemTouchHelper.SimpleCallback simpleCallback = new ItemTouchHelper.SimpleCallback(ItemTouchHelper.UP | ItemTouchHelper.DOWN | ItemTouchHelper.START | ItemTouchHelper.END, 0) {
+        private boolean moved;
+        private int dragFrom;
+        private int dragTo;
+
         /**
          * Rearranges the habit list when an item is moved.
          * @param recyclerView the recyclerview, cannot be null
@@ -181,14 +156,34 @@ public class HabitListActivity extends AppCompatActivity implements HabitFragmen
             int fromPosition = viewHolder.getAdapterPosition();
             // target position of the habit
             int toPosition = target.getAdapterPosition();
-            // switch the habits in the list
-            Collections.swap(habitList, fromPosition, toPosition);
-            // update the user and recyclerview
-            db.updateUser(user);
-            recyclerView.getAdapter().notifyItemMoved(fromPosition, toPosition);
+            // remember where the habit started, the habit list itself is
+            // reordered when the habit is dropped
+            if (!moved) {
+                dragFrom = fromPosition;
+            }
+            dragTo = toPosition;
+            // update the recyclerview
+            recyclerAdapter.moveRow(fromPosition, toPosition);
+            moved = true;
             return false;
         }
 
+        /**
+         * Saves the new order once the dragged habit is dropped.
+         * @param recyclerView the recyclerview, cannot be null
+         * @param viewHolder the dropped viewholder, cannot be null
+         */
+        @Override
+        public void clearView(@NonNull RecyclerView recyclerView, @NonNull RecyclerView.ViewHolder viewHolder) {
+            super.clearView(recyclerView, viewHolder);
+            if (moved) {
+                moved = false;
+                int from = dragFrom;
+                int to = dragTo;
+                viewModel.mutate(changed -> changed.getHabits().add(to, changed.getHabits().remove(from)));
+            }
+        }
+
         /**
          * Scroll the list when the user swipes.
          * @param viewHolder the viewholder that was swiped
@@ -200,6 +195,14 @@ public class HabitListActivity extends AppCompatActivity implements HabitFragmen
         }
     };
 
+    /**
+     * Rebuilds the habit rows in the background and shows them when ready.
+     */
+    @RequiresApi(api = Build.VERSION_CODES.O)
+    private void refreshRows() {
+        HabitRowBuilder.getInstance().build(habitList, recyclerAdapter::setRows);
+    }
+
     /**
      * Method to add a habit to the list using the fragment.
      * @param newHabit the habit to add
@@ -207,31 +210,47 @@ public class HabitListActivity extends AppCompatActivity implements HabitFragmen
     @RequiresApi(api = Build.VERSION_CODES.O)
     @Override
     public void addHabit(Habit newHabit) {
-        habitList.add(newHabit);
-        recyclerAdapter.notifyItemInserted(habitList.size()-1);
-        db.updateUser(user);
+        viewModel.mutate(changed -> changed.addHabit(newHabit));
     }
 
     /**
      * Method to edit a habit in the list.
      * @param habit the habit to edit
+     * @param edited a habit holding the new details
      */
+    @RequiresApi(api = Build.VERSION_CODES.O)
     @Override
-    public void editHabit(Habit habit) {
-        recyclerAdapter.notifyDataSetChanged();
-        db.updateUser(user);
+    public void editHabit(Habit habit, Habit edited) {
+        String title = habit.getTitle();
+        viewModel.mutate(changed -> {
+            Habit target = changed.findHabit(title);
+            if (target != null) {
+                target.setDetails(edited);
+            }
+        });
     }
 
     /**
      * Method to delete a habit from the list.
      * @param habit the habit to delete
      */
+    @RequiresApi(api = Build.VERSION_CODES.O)
     @Override
     public void deleteHabit(Habit habit) {
         // delete the habit from the user
         // did not delete from adapter in order to ensure events are deleted too
-        user.deleteHabit(habit);
-        recyclerAdapter.notifyDataSetChanged();
-        db.updateUser(user);
+        List<Task<Void>> deletes = new ArrayList<Task<Void>>();
+        for (HabitEvent event : user.getHabitEvents()) {
+            if (event.getHabit().equals(habit.getTitle())) {
+                deletes.add(db.deleteHabitEvent(user.getUsername(), event));
+            }
+        }
+        viewModel.mutate(changed -> changed.deleteHabit(habit));
+        if (user.getEventsMirrored()) {
+            // the deleted events' images are no longer referenced once the
+            // events are gone from the events collection
+            String username = user.getUsername();
+            Tasks.whenAll(deletes).addOnSuccessListener(done -> OrphanImageCollector.collectInBackground(username));
+        }
     }
 }
@@ -0,0 +1,194 @@
+/*
+ *  HabitRow
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable, precomputed row of a habit list. Rows are built off the main
+ * thread by HabitRowBuilder, so adapters only copy these fields into views
+ * and never compute a habit's score while binding.
+ */
+public class HabitRow {
+    private final Habit habit;
+    private final String title;
+    private final int score;
+    private final LocalDate nextDue;
+    private final String nextDueLabel;
+    private final Version version;
+
+    /**
+     * Everything a row is built from, compared by value, so two rows with
+     * equal versions show exactly the same thing.
+     */
+    static final class Version {
+        private final String title;
+        private final long start; // epoch day
+        private final List<Boolean> weekdays;
+        private final long[] doneDays; // sorted epoch days
+        private final long today; // epoch day
+        private final int score; // -1 when computed from the done days
+
+        /**
+         * Constructor
+         * @param title the habit title
+         * @param start the start date, as an epoch day
+         * @param weekdays the scheduled weekdays, which must not be changed
+         * @param doneDays the days the habit was done, as sorted epoch days,
+         *                 which must not be changed
+         * @param today the current date, as an epoch day
+         * @param score the precomputed score, or -1 if it is computed from the
+         *              done days
+         */
+        Version(String title, long start, List<Boolean> weekdays, long[] doneDays, long today, int score) {
+            this.title = title;
+            this.start = start;
+            this.weekdays = weekdays;
+            this.doneDays = doneDays;
+            this.today = today;
+            this.score = score;
+        }
+
+        /**
+         * Compares every field, not just the hash codes.
+         * @param o the other object
+         * @return true if both versions hold the same values
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Version)) {
+                return false;
+            }
+            Version other = (Version) o;
+            return start == other.start
+                    && today == other.today
+                    && score == other.score
+                    && title.equals(other.title)
+                    && weekdays.equals(other.weekdays)
+                    && Arrays.equals(doneDays, other.doneDays);
+        }
+
+        /**
+         * Hashes every field.
+         * @return the hash code
+         */
+        @Override
+        public int hashCode() {
+            int hash = title.hashCode();
+            hash = 31 * hash + Long.hashCode(start);
+            hash = 31 * hash + weekdays.hashCode();
+            hash = 31 * hash + Arrays.hashCode(doneDays);
+            hash = 31 * hash + Long.hashCode(today);
+            return 31 * hash + score;
+        }
+    }
+
+    /**
+     * Constructor
+     * @param habit the habit this row shows
+     * @param title the habit title
+     * @param score the follow score, from 0 to 3
+     * @param nextDue the next day the habit is scheduled for, can be null
+     * @param nextDueLabel a short description of the next due day
+     * @param version the version of the habit this row was built from
+     */
+    HabitRow(Habit habit, String title, int score, LocalDate nextDue, String nextDueLabel, Version version) {
+        this.habit = habit;
+        this.title = title;
+        this.score = score;
+        this.nextDue = nextDue;
+        this.nextDueLabel = nextDueLabel;
+        this.version = version;
+    }
+
+    /**
+     * Creates a copy of this row for another instance of the same habit, such
+     * as one loaded again from the database.
+     * @param habit the habit
+     * @return a row for the habit
+     */
+    HabitRow withHabit(Habit habit) {
+        return new HabitRow(habit, title, score, nextDue, nextDueLabel, version);
+    }
+
+    /**
+     * Habit getter
+     * @return the habit this row shows
+     */
+    public Habit getHabit() { return habit; }
+
+    /**
+     * Title getter
+     * @return the habit title
+     */
+    public String getTitle() { return title; }
+
+    /**
+     * Score getter
+     * @return the follow score, from 0 to 3
+     */
+    public int getScore() { return score; }
+
+    /**
+     * Gets the indicator drawable for the follow score.
+     * @return the drawable resource id
+     */
+    public int getScoreIcon() {
+        if (score == 3) {
+            return R.drawable.ic_score3habit;
+        }
+        else if (score == 2) {
+            return R.drawable.ic_score2habit;
+        }
+        else if (score == 1) {
+            return R.drawable.ic_score1habit;
+        }
+        return R.drawable.ic_score0habit;
+    }
+
+    /**
+     * Next due getter
+     * @return the next day the habit is scheduled for, or null if it has no
+     * scheduled weekdays
+     */
+    public LocalDate getNextDue() { return nextDue; }
+
+    /**
+     * Next due label getter
+     * @return a short description of the next due day, empty if there is none
+     */
+    public String getNextDueLabel() { return nextDueLabel; }
+
+    /**
+     * Version getter
+     * @return the version of the habit this row was built from, which is
+     * only equal to another row's if everything shown in the rows is equal
+     */
+    Version getVersion() { return version; }
+}
@@ -0,0 +1,225 @@
+/*
+ *  HabitRowBuilder
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+
+import androidx.annotation.RequiresApi;
+
+import java.time.LocalDate;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Builds HabitRows for the habit lists on a background thread.
+ * The habits are copied on the calling thread, since they keep being edited
+ * on the main thread, and the rows are computed from the copies. Each copy
+ * has a version holding everything a row is built from, including today's
+ * date, compared by value, so a row is only computed again when its habit
+ * or the day has changed.
+ */
+public class HabitRowBuilder {
+    private static final HabitRowBuilder instance = new HabitRowBuilder();
+
+    // constants
+    private static final int CACHE_SIZE = 256;
+
+    private final ExecutorService executor;
+    private final Handler mainHandler;
+    // rows by version, only used on the background thread
+    private final LruCache<HabitRow.Version, HabitRow> cache;
+
+    /**
+     * Callback interface for built rows, called on the main thread.
+     */
+    public interface Callback {
+        void onRowsBuilt(List<HabitRow> rows);
+    }
+
+    /**
+     * A copy of the parts of a habit that a row is built from.
+     */
+    private static class Snapshot {
+        private final Habit habit;
+        private final String title;
+        private final LocalDate start;
+        private final List<Boolean> weekdays;
+        private final long[] doneDays; // sorted
+
+        /**
+         * Constructor
+         * @param habit the habit to copy
+         */
+        @RequiresApi(api = Build.VERSION_CODES.O)
+        Snapshot(Habit habit) {
+            this.habit = habit;
+            this.title = habit.getTitle();
+            this.start = LocalDate.of(habit.getYear(), habit.getMonth(), habit.getDay());
+            this.weekdays = Collections.unmodifiableList(new ArrayList<Boolean>(habit.getWeekdays()));
+            List<HabitEvent> events = habit.getHabitEvents();
+            this.doneDays = new long[events.size()];
+            for (int i = 0; i < doneDays.length; i++) {
+                HabitEvent event = events.get(i);
+                doneDays[i] = LocalDate.of(event.getYear(), event.getMonth(), event.getDay()).toEpochDay();
+            }
+            // the order events were added in does not matter
+            Arrays.sort(doneDays);
+        }
+
+        /**
+         * Computes the version of this copy for a given day.
+         * @param today the current date
+         * @return the version
+         */
+        @RequiresApi(api = Build.VERSION_CODES.O)
+        HabitRow.Version version(LocalDate today) {
+            return new HabitRow.Version(title, start.toEpochDay(), weekdays, doneDays, today.toEpochDay(), -1);
+        }
+    }
+
+    /**
+     * Private constructor
+     */
+    private HabitRowBuilder() {
+        // a single worker delivers results in the order they were requested
+        executor = Executors.newSingleThreadExecutor();
+        mainHandler = new Handler(Looper.getMainLooper());
+        cache = new LruCache<HabitRow.Version, HabitRow>(CACHE_SIZE);
+    }
+
+    /**
+     * Get an instance of the HabitRowBuilder
+     * @return handle to HabitRowBuilder
+     */
+    public static HabitRowBuilder getInstance() { return instance; }
+
+    /**
+     * Builds the rows for a list of habits in the background. Must be called
+     * on the main thread, the habits are copied before returning.
+     * @param habits the habits to build rows for
+     * @param callback called on the main thread with the rows, in the same
+     *                 order as the habits
+     */
+    @RequiresApi(api = Build.VERSION_CODES.O)
+    public void build(List<Habit> habits, Callback callback) {
+        List<Snapshot> snapshots = new ArrayList<Snapshot>(habits.size());
+        for (Habit habit : habits) {
+            snapshots.add(new Snapshot(habit));
+        }
+        executor.execute(() -> {
+            LocalDate today = LocalDate.now();
+            List<HabitRow> rows = new ArrayList<HabitRow>(snapshots.size());
+            for (Snapshot snapshot : snapshots) {
+                rows.add(rowFor(snapshot, today));
+            }
+            mainHandler.post(() -> callback.onRowsBuilt(rows));
+        });
+    }
+
+    /**
+     * Builds the rows for another user's public habits in the background.
+     * Their scores are computed for today from the recent done days kept in
+     * the profile. Must be called on the main thread.
+     * @param habits the public habits to build rows for
+     * @param callback called on the main thread with the rows, in the same
+     *                 order as the habits
+     */
+    @RequiresApi(api = Build.VERSION_CODES.O)
+    public void buildPublic(List<PublicHabit> habits, Callback callback) {
+        // profile habits are never edited, so they are not copied
+        List<PublicHabit> publicHabits = new ArrayList<PublicHabit>(habits);
+        executor.execute(() -> {
+            LocalDate today = LocalDate.now();
+            List<HabitRow> rows = new ArrayList<HabitRow>(publicHabits.size());
+            for (PublicHabit publicHabit : publicHabits) {
+                Habit habit = publicHabit.toHabit();
+                LocalDate start = LocalDate.of(habit.getYear(), habit.getMonth(), habit.getDay());
+                LocalDate nextDue = Habit.nextDueDate(start, habit.getWeekdays(), today);
+                int score = publicHabit.scoreOn(today);
+                HabitRow.Version version = new HabitRow.Version(habit.getTitle(), start.toEpochDay(),
+                        new ArrayList<Boolean>(habit.getWeekdays()), new long[0], today.toEpochDay(), score);
+                rows.add(new HabitRow(habit, habit.getTitle(), score, nextDue, dueLabel(nextDue, today), version));
+            }
+            mainHandler.post(() -> callback.onRowsBuilt(rows));
+        });
+    }
+
+    /**
+     * Gets the row for a habit copy, from the cache if its version was
+     * already built.
+     * @param snapshot the habit copy
+     * @param today the current date
+     * @return the row
+     */
+    @RequiresApi(api = Build.VERSION_CODES.O)
+    private HabitRow rowFor(Snapshot snapshot, LocalDate today) {
+        HabitRow.Version version = snapshot.version(today);
+        HabitRow cached = cache.get(version);
+        if (cached != null) {
+            return cached.withHabit(snapshot.habit);
+        }
+
+        Set<LocalDate> doneDays = new HashSet<LocalDate>();
+        for (long day : snapshot.doneDays) {
+            doneDays.add(LocalDate.ofEpochDay(day));
+        }
+        int score = Habit.followScore(snapshot.start, snapshot.weekdays, doneDays, today);
+        LocalDate nextDue = Habit.nextDueDate(snapshot.start, snapshot.weekdays, today);
+        HabitRow row = new HabitRow(snapshot.habit, snapshot.title, score, nextDue, dueLabel(nextDue, today), version);
+        cache.put(version, row);
+        return row;
+    }
+
+    /**
+     * Describes the next due day relative to today.
+     * @param nextDue the next due day, can be null
+     * @param today the current date
+     * @return the description
+     */
+    @RequiresApi(api = Build.VERSION_CODES.O)
+    private static String dueLabel(LocalDate nextDue, LocalDate today) {
+        if (nextDue == null) {
+            return "";
+        } else if (nextDue.equals(today)) {
+            return "Due today";
+        } else if (nextDue.equals(today.plusDays(1))) {
+            return "Due tomorrow";
+        } else if (nextDue.isAfter(today.plusDays(6))) {
+            // the habit has not started yet
+            return "Starts " + nextDue.getMonth().getDisplayName(TextStyle.SHORT, Locale.getDefault()) + " " + nextDue.getDayOfMonth();
+        }
+        return "Due " + nextDue.getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.getDefault());
+    }
+}
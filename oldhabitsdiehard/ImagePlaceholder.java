@@ -0,0 +1,78 @@
+/*
+ *  ImagePlaceholder
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Base64;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Builds the tiny placeholder image that is saved inside a HabitEvent, so
+ * screens can show a blurry preview of the photo straight away while the
+ * real image downloads. The placeholder is a very small JPEG encoded as a
+ * Base64 string, usually well under 1 KB.
+ */
+public class ImagePlaceholder {
+    // constants
+    private static final int SIZE = 16;
+    private static final int QUALITY = 50;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ImagePlaceholder() {}
+
+    /**
+     * Creates the placeholder string for an image.
+     * @param bitmap the full image
+     * @return the placeholder string
+     */
+    public static String encode(Bitmap bitmap) {
+        Bitmap small = ImageUploadQueue.scaleDown(bitmap, SIZE);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        small.compress(Bitmap.CompressFormat.JPEG, QUALITY, baos);
+        return Base64.encodeToString(baos.toByteArray(), Base64.NO_WRAP);
+    }
+
+    /**
+     * Decodes a placeholder string back to an image. The image is tiny, and
+     * is meant to be stretched to fill its view.
+     * @param placeholder the placeholder string, can be null
+     * @return the placeholder image, or null if there is none
+     */
+    public static Bitmap decode(String placeholder) {
+        if (placeholder == null) {
+            return null;
+        }
+        try {
+            byte[] bytes = Base64.decode(placeholder, Base64.NO_WRAP);
+            return BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
+        } catch (IllegalArgumentException e) {
+            // not a valid placeholder
+            return null;
+        }
+    }
+}
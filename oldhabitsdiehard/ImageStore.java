@@ -0,0 +1,89 @@
+/*
+ *  ImageStore
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import java.util.List;
+
+/**
+ * A store of habit event images, keyed by the same reference strings that are
+ * saved in HabitEvent. Implemented by Firebase Storage in the app, and by a
+ * local directory so storage maintenance can run without Firebase.
+ * Methods may block and must not be called on the main thread.
+ */
+public interface ImageStore {
+
+    /**
+     * An image held in the store.
+     */
+    class StoredImage {
+        private final String ref;
+        private final long size;
+        private final long updated;
+
+        /**
+         * Constructor
+         * @param ref the reference string of the image
+         * @param size the size of the image in bytes
+         * @param updated when the image was last written, in epoch millis
+         */
+        public StoredImage(String ref, long size, long updated) {
+            this.ref = ref;
+            this.size = size;
+            this.updated = updated;
+        }
+
+        /**
+         * Reference string getter
+         * @return the reference string of the image
+         */
+        public String getRef() { return ref; }
+
+        /**
+         * Size getter
+         * @return the size of the image in bytes
+         */
+        public long getSize() { return size; }
+
+        /**
+         * Updated time getter
+         * @return when the image was last written, in epoch millis
+         */
+        public long getUpdated() { return updated; }
+    }
+
+    /**
+     * Lists every image under a prefix (i.e. a username).
+     * @param prefix the prefix to list
+     * @return the images under the prefix
+     * @throws Exception if the store could not be listed
+     */
+    List<StoredImage> list(String prefix) throws Exception;
+
+    /**
+     * Deletes an image.
+     * @param ref the reference string of the image
+     * @throws Exception if the image could not be deleted
+     */
+    void delete(String ref) throws Exception;
+}
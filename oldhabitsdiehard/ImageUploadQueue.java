@@ -0,0 +1,317 @@
+/*
+ *  ImageUploadQueue
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.tasks.OnFailureListener;
+import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.firebase.storage.OnProgressListener;
+import com.google.firebase.storage.StorageMetadata;
+import com.google.firebase.storage.StorageReference;
+import com.google.firebase.storage.UploadTask;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Background queue for uploading habit event images to Firebase Storage.
+ * Images are compressed and spooled to the cache directory off the main
+ * thread, then uploaded one at a time: the next queued image only starts
+ * uploading once the one before it is stored or given up on. Failed
+ * uploads are retried with exponential backoff, resuming the upload session
+ * where it left off.
+ * A small thumbnail is generated alongside every image and stored next to
+ * it, so lists can show photos without downloading the originals, along
+ * with a tiny placeholder that is saved in the habit event itself.
+ * The listener is only told the upload finished once the image is stored,
+ * so the saved habit event is only pointed at images that exist.
+ */
+public class ImageUploadQueue {
+    private static final ImageUploadQueue instance = new ImageUploadQueue();
+
+    // constants
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long BASE_BACKOFF_MS = 2000;
+    private static final int JPEG_QUALITY = 90;
+    private static final int THUMB_SIZE = 160;
+    private static final int THUMB_QUALITY = 70;
+    private static final String IMAGE_SUFFIX = ".jpg";
+    private static final String THUMB_SUFFIX = "_thumb.jpg";
+
+    private final ExecutorService executor;
+    private final Handler mainHandler;
+    // spooled uploads waiting for the running one, only used on the main thread
+    private final ArrayDeque<UploadJob> pending = new ArrayDeque<UploadJob>();
+    private boolean uploading;
+
+    /**
+     * Callback interface for the state of a queued upload. All methods are
+     * called on the main thread.
+     */
+    public interface UploadListener {
+        void onProgress(int percent);
+        void onUploaded(String refString, String placeholder);
+        void onFailed(Exception e);
+    }
+
+    /**
+     * Private constructor
+     */
+    private ImageUploadQueue() {
+        // a single worker keeps uploads in the order they were queued
+        executor = Executors.newSingleThreadExecutor();
+        mainHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * Get an instance of the ImageUploadQueue
+     * @return handle to ImageUploadQueue
+     */
+    public static ImageUploadQueue getInstance() { return instance; }
+
+    /**
+     * Creates a new storage reference string for an image owned by a user.
+     * @param username the owner of the image
+     * @return a unique reference string for the image
+     */
+    public static String newImageRef(String username) {
+        return username + "/" + UUID.randomUUID().toString() + IMAGE_SUFFIX;
+    }
+
+    /**
+     * Gets the reference string of the thumbnail stored with an image. Only
+     * the trailing ".jpg" is replaced, since the username before it may hold
+     * ".jpg" too.
+     * @param refString the reference string of the full image
+     * @return the reference string of its thumbnail
+     */
+    public static String thumbRef(String refString) {
+        if (!refString.endsWith(IMAGE_SUFFIX)) {
+            return refString + THUMB_SUFFIX;
+        }
+        return refString.substring(0, refString.length() - IMAGE_SUFFIX.length()) + THUMB_SUFFIX;
+    }
+
+    /**
+     * Scales an image down so its longest side is at most the given size.
+     * @param bitmap the image to scale
+     * @param maxSize the maximum width or height
+     * @return the scaled image, or the same image if it is already small enough
+     */
+    static Bitmap scaleDown(Bitmap bitmap, int maxSize) {
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        if (width <= maxSize && height <= maxSize) {
+            return bitmap;
+        }
+        float scale = (float) maxSize / Math.max(width, height);
+        return Bitmap.createScaledBitmap(bitmap, Math.max(1, Math.round(width * scale)),
+                Math.max(1, Math.round(height * scale)), true);
+    }
+
+    /**
+     * Compresses an image to a spool file.
+     * @param bitmap the image to compress
+     * @param spool the file to write to
+     * @param quality the JPEG quality to use
+     * @throws IOException if the file could not be written
+     */
+    private static void spool(Bitmap bitmap, File spool, int quality) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(spool)) {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, quality, out);
+        }
+    }
+
+    /**
+     * Queue an image for upload.
+     * @param context any context, used to find the cache directory
+     * @param bitmap the image to upload
+     * @param refString the storage reference string to upload the image to
+     * @param listener callback for progress and completion
+     */
+    public void enqueue(Context context, Bitmap bitmap, String refString, UploadListener listener) {
+        File cacheDir = context.getApplicationContext().getCacheDir();
+        executor.execute(new Runnable() {
+            /**
+             * Compress the image and its thumbnail to spool files and start
+             * the upload.
+             */
+            @Override
+            public void run() {
+                String thumbString = thumbRef(refString);
+                File spool = new File(cacheDir, "upload-" + refString.replace('/', '_'));
+                File thumbSpool = new File(cacheDir, "upload-" + thumbString.replace('/', '_'));
+                String placeholder = ImagePlaceholder.encode(bitmap);
+                try {
+                    spool(bitmap, spool, JPEG_QUALITY);
+                    spool(scaleDown(bitmap, THUMB_SIZE), thumbSpool, THUMB_QUALITY);
+                } catch (IOException e) {
+                    // could not spool the image, nothing to upload
+                    spool.delete();
+                    thumbSpool.delete();
+                    mainHandler.post(() -> listener.onFailed(e));
+                    return;
+                }
+                // the next queued upload starts once this image is done
+                UploadJob job = new UploadJob(spool, refString, placeholder, listener, ImageUploadQueue.this::startNext);
+                // upload the thumbnail first, lists fall back to no photo if it fails
+                UploadJob thumbJob = new UploadJob(thumbSpool, thumbString, null, new UploadListener() {
+                    @Override
+                    public void onProgress(int percent) {}
+
+                    @Override
+                    public void onUploaded(String ref, String none) {}
+
+                    @Override
+                    public void onFailed(Exception e) {}
+                }, job::start);
+                mainHandler.post(() -> {
+                    pending.add(thumbJob);
+                    if (!uploading) {
+                        startNext();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Starts the next queued upload, if there is one. Called on the main
+     * thread when an upload is queued with none running, and when the
+     * running one finishes.
+     */
+    private void startNext() {
+        UploadJob next = pending.poll();
+        uploading = next != null;
+        if (next != null) {
+            next.start();
+        }
+    }
+
+    /**
+     * A single image upload with its retry state.
+     */
+    private class UploadJob {
+        private final File spool;
+        private final String refString;
+        private final String placeholder;
+        private final UploadListener listener;
+        private final Runnable done;
+        private final StorageMetadata metadata;
+        private Uri sessionUri;
+        private int attempts;
+
+        /**
+         * Constructor
+         * @param spool the file holding the compressed image
+         * @param refString the storage reference string to upload to
+         * @param placeholder the placeholder string for the image, can be null
+         * @param listener callback for progress and completion
+         * @param done run after the listener once the upload succeeded or
+         *             gave up
+         */
+        UploadJob(File spool, String refString, String placeholder, UploadListener listener, Runnable done) {
+            this.spool = spool;
+            this.refString = refString;
+            this.placeholder = placeholder;
+            this.listener = listener;
+            this.done = done;
+            this.metadata = new StorageMetadata.Builder().setContentType("image/jpeg").build();
+            this.sessionUri = null;
+            this.attempts = 0;
+        }
+
+        /**
+         * Start or resume the upload.
+         */
+        void start() {
+            attempts++;
+            StorageReference imgRef = UserDatabase.getInstance().getStorageRef().child(refString);
+            UploadTask uploadTask;
+            if (sessionUri != null) {
+                // resume the previous upload session
+                uploadTask = imgRef.putFile(Uri.fromFile(spool), metadata, sessionUri);
+            } else {
+                uploadTask = imgRef.putFile(Uri.fromFile(spool), metadata);
+            }
+
+            uploadTask.addOnProgressListener(new OnProgressListener<UploadTask.TaskSnapshot>() {
+                /**
+                 * Remember the session so a retry can resume, and report
+                 * progress.
+                 * @param snapshot the current state of the upload
+                 */
+                @Override
+                public void onProgress(@NonNull UploadTask.TaskSnapshot snapshot) {
+                    if (snapshot.getUploadSessionUri() != null) {
+                        sessionUri = snapshot.getUploadSessionUri();
+                    }
+                    long total = snapshot.getTotalByteCount();
+                    if (total > 0) {
+                        listener.onProgress((int) (100 * snapshot.getBytesTransferred() / total));
+                    }
+                }
+            }).addOnSuccessListener(new OnSuccessListener<UploadTask.TaskSnapshot>() {
+                /**
+                 * The image is stored, so the event can now reference it.
+                 * @param taskSnapshot the upload task
+                 */
+                @Override
+                public void onSuccess(UploadTask.TaskSnapshot taskSnapshot) {
+                    spool.delete();
+                    listener.onUploaded(refString, placeholder);
+                    done.run();
+                }
+            }).addOnFailureListener(new OnFailureListener() {
+                /**
+                 * Retry with backoff, or give up after too many attempts.
+                 * @param e the exception that occurred
+                 */
+                @Override
+                public void onFailure(@NonNull Exception e) {
+                    if (attempts < MAX_ATTEMPTS) {
+                        long delay = BASE_BACKOFF_MS << (attempts - 1);
+                        mainHandler.postDelayed(UploadJob.this::start, delay);
+                    } else {
+                        spool.delete();
+                        listener.onFailed(e);
+                        done.run();
+                    }
+                }
+            });
+        }
+    }
+}
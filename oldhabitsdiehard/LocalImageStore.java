@@ -0,0 +1,80 @@
+/*
+ *  LocalImageStore
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ImageStore backed by a local directory, laid out the same way as the
+ * Firebase Storage bucket (one folder per username). Used as a stand-in for
+ * Firebase when testing storage maintenance.
+ */
+public class LocalImageStore implements ImageStore {
+    private final File root;
+
+    /**
+     * Constructor
+     * @param root the directory standing in for the bucket
+     */
+    public LocalImageStore(File root) {
+        this.root = root;
+    }
+
+    /**
+     * Lists every file under a prefix folder.
+     * @param prefix the prefix to list
+     * @return the images under the prefix
+     */
+    @Override
+    public List<StoredImage> list(String prefix) {
+        List<StoredImage> images = new ArrayList<StoredImage>();
+        File[] files = new File(root, prefix).listFiles();
+        if (files == null) {
+            // nothing stored for this prefix
+            return images;
+        }
+        for (File file : files) {
+            if (file.isFile()) {
+                images.add(new StoredImage(prefix + "/" + file.getName(), file.length(), file.lastModified()));
+            }
+        }
+        return images;
+    }
+
+    /**
+     * Deletes an image file.
+     * @param ref the reference string of the image
+     * @throws IOException if the file exists but could not be deleted
+     */
+    @Override
+    public void delete(String ref) throws IOException {
+        File file = new File(root, ref);
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Could not delete " + ref);
+        }
+    }
+}
@@ -34,12 +34,14 @@ import android.widget.Toast;
 
 /**
  * This class defines the Login activity which is called when the app starts.
+ * Only the user's credentials are read to log in, the user itself is read
+ * while the main screen opens. If a Session was saved on an earlier launch,
+ * the main screen is opened at once instead.
  *
  * @author Rowan Tilroe
  * @author Paige Lekach
  */
 public class Login extends AppCompatActivity {
-    private User user;
 
     /**
      * Defines action to take when the activity is created.
@@ -48,6 +50,18 @@ public class Login extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+
+        // resume the saved session, showing the user from the local cache
+        String savedUsername = Session.getUsername(this);
+        if (savedUsername != null) {
+            if (!UserStore.getInstance().isStarted()) {
+                UserStore.getInstance().start(savedUsername);
+            }
+            startActivity(new Intent(this, MainActivity.class));
+            finish();
+            return;
+        }
+
         // set the view
         setContentView(R.layout.activity_login);
 
@@ -94,21 +108,26 @@ public class Login extends AppCompatActivity {
                     // user must enter username and password
                     Toast.makeText(getApplicationContext(), "Incorrect username and/or password.\nPlease try again!", Toast.LENGTH_LONG).show();
                 } else {
-                    // check whether the user info is correct
-                    user = db.checkLogin(username, password);
-
-                    if (user != null) {
-                        // login success, set the current user
-                        CurrentUser.set(user);
-                        // start today view
-                        Intent intent = new Intent(view.getContext(), TodayActivity.class);
-                        startActivity(intent);
-                    } else {
-                        // login failure
-                        Toast.makeText(getApplicationContext(), "Incorrect username and/or password.\nPlease try again!", Toast.LENGTH_LONG).show();
-                        usernameBox.setText("");
-                        passwordBox.setText("");
-                    }
+                    // check whether the user info is correct, one login at a time
+                    loginButton.setEnabled(false);
+                    db.checkCredentials(username, password).addOnCompleteListener(task -> {
+                        loginButton.setEnabled(true);
+                        Credentials credentials = task.isSuccessful() ? task.getResult() : null;
+                        if (credentials != null) {
+                            // login success, the user is read while the main screen opens
+                            Session.save(getApplicationContext(), username, credentials.getSalt());
+                            UserStore.getInstance().start(username);
+                            // start today view, back should not return here
+                            Intent intent = new Intent(view.getContext(), MainActivity.class);
+                            startActivity(intent);
+                            finish();
+                        } else {
+                            // login failure
+                            Toast.makeText(getApplicationContext(), "Incorrect username and/or password.\nPlease try again!", Toast.LENGTH_LONG).show();
+                            usernameBox.setText("");
+                            passwordBox.setText("");
+                        }
+                    });
                 }
             }
         });
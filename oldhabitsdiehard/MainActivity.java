@@ -0,0 +1,261 @@
+/*
+ *  MainActivity
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import android.os.Bundle;
+import android.view.MenuItem;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentManager;
+import androidx.fragment.app.FragmentTransaction;
+import androidx.lifecycle.Lifecycle;
+
+import com.google.android.material.bottomnavigation.BottomNavigationView;
+import com.google.android.material.navigation.NavigationBarView;
+
+/**
+ * The single activity hosting the main screens of the app: today, habits,
+ * events, profile and search. Each screen is a fragment that is created the
+ * first time its tab is chosen and then kept, so switching tabs only hides
+ * and shows fragments instead of starting a new activity every time.
+ * The logged in user is shared between the screens with a UserViewModel.
+ * A login only checks the user's credentials, so the screens are shown once
+ * the user itself has been read. On a launch with a saved Session the user
+ * is shown from the local cache, and the session is checked with the server
+ * in the background.
+ */
+public class MainActivity extends AppCompatActivity {
+    // constants
+    private static final String SELECTED_TAB_KEY = "selectedTab";
+    private static final String TAB_TAG_PREFIX = "tab:";
+
+    private BottomNavigationView bottomNavigationView;
+    private int selectedTab;
+    private boolean ready = false; // true once the user is read and a tab is shown
+
+    /**
+     * Sets up the navigation bar and shows the last chosen tab.
+     * @param savedInstanceState the saved state, holding the chosen tab
+     */
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        // the screens need the user, so if the process was killed they are
+        // created again once it is read instead of being restored without it
+        UserStore store = UserStore.getInstance();
+        super.onCreate(store.get() != null ? savedInstanceState : null);
+        if (!store.isStarted()) {
+            String username = Session.getUsername(this);
+            if (username == null) {
+                // no one is logged in
+                startActivity(new Intent(this, Login.class));
+                finish();
+                return;
+            }
+            store.start(username);
+        }
+        setContentView(R.layout.main_activity);
+
+        //setting up the navigation bar
+        bottomNavigationView = findViewById(R.id.bottom_navigation);
+        bottomNavigationView.setLabelVisibilityMode(NavigationBarView.LABEL_VISIBILITY_LABELED);
+
+        // restore the tab, the fragments themselves are restored by the fragment manager
+        int tab = R.id.action_today;
+        if (savedInstanceState != null) {
+            tab = savedInstanceState.getInt(SELECTED_TAB_KEY, R.id.action_today);
+        }
+        bottomNavigationView.setSelectedItemId(tab);
+        selectedTab = tab;
+
+        // listener for navigation buttons
+        bottomNavigationView.setOnNavigationItemSelectedListener(
+                new BottomNavigationView.OnNavigationItemSelectedListener() {
+                    /**
+                     * Switches to the screen of the navigation button that
+                     * was pressed.
+                     * @param item the button that was pressed
+                     * @return true to show the button as selected
+                     */
+                    @Override
+                    public boolean onNavigationItemSelected(@NonNull MenuItem item) {
+                        if (ready) {
+                            showTab(item.getItemId());
+                        } else {
+                            // shown once the user is read
+                            selectedTab = item.getItemId();
+                        }
+                        return true;
+                    }
+                });
+
+        // pressing the current tab again does nothing
+        bottomNavigationView.setOnNavigationItemReselectedListener(item -> {});
+
+        if (savedInstanceState == null) {
+            checkSession();
+        }
+
+        // the screens need the user, so they wait for the first snapshot
+        store.getUser().observe(this, user -> {
+            if (user != null && !ready) {
+                ready = true;
+                showTab(selectedTab);
+
+                // notify new follow requests while the app is open, on any tab
+                new FollowRequestStream(this, new FollowRequestNotifier(this));
+
+                // these write from the user, so they wait for the server's
+                // copy instead of a possibly old cached one
+                store.getConfirmedUser().addOnSuccessListener(this, confirmed -> {
+                    mirrorFollowEdges();
+
+                    // users saved before profiles existed get one now, so
+                    // other users can see them, and older profiles are updated
+                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                        UserDatabase.getInstance().refreshProfile(confirmed);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Checks the saved session with the server, ending it if the password
+     * was changed on another device since. The session is kept if the server
+     * cannot be reached.
+     */
+    private void checkSession() {
+        String username = Session.getUsername(this);
+        if (username == null) {
+            return;
+        }
+        Context context = getApplicationContext();
+        UserDatabase.getInstance().getSessionToken(username).addOnSuccessListener(token -> {
+            String saved = Session.getToken(context);
+            if (!username.equals(Session.getUsername(context))) {
+                // logged out while the token was read
+                return;
+            }
+            if (token != null && saved == null) {
+                // a new account, whose token was not known when it was saved
+                Session.save(context, username, token);
+            } else if (token == null || !token.equals(saved)) {
+                Toast.makeText(context, "Please log in again", Toast.LENGTH_LONG).show();
+                Session.end(context);
+            }
+        });
+    }
+
+    /**
+     * Copies the logged in user's followers and following lists from before
+     * the edge collections into the collections, once. The lists are emptied
+     * after they are copied, so the user's document stays small.
+     */
+    private void mirrorFollowEdges() {
+        User user = UserStore.getInstance().get();
+        if (user == null || user.getEdgesMirrored()) {
+            return;
+        }
+        UserDatabase.getInstance().mirrorFollowEdges(user).addOnSuccessListener(done ->
+                UserStore.getInstance().mutate(changed -> {
+                    changed.removeFollows(user.getFollowing(), user.getFollowers());
+                    changed.setEdgesMirrored(true);
+                }));
+    }
+
+    /**
+     * Saves the chosen tab.
+     * @param outState the state to save to
+     */
+    @Override
+    protected void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putInt(SELECTED_TAB_KEY, selectedTab);
+    }
+
+    /**
+     * Switches to a tab as if its navigation button was pressed.
+     * @param tabId the menu id of the tab, e.g. R.id.action_profile
+     */
+    public void navigateTo(int tabId) {
+        bottomNavigationView.setSelectedItemId(tabId);
+    }
+
+    /**
+     * Shows the fragment of a tab, creating it the first time, and hides the
+     * others. Hidden fragments are held at STARTED, so each fragment is
+     * resumed whenever its tab is shown again.
+     * @param tabId the menu id of the tab
+     */
+    private void showTab(int tabId) {
+        FragmentManager fragmentManager = getSupportFragmentManager();
+        FragmentTransaction transaction = fragmentManager.beginTransaction().setReorderingAllowed(true);
+
+        // hide the other tabs
+        for (Fragment fragment : fragmentManager.getFragments()) {
+            String tag = fragment.getTag();
+            if (tag != null && tag.startsWith(TAB_TAG_PREFIX) && !tag.equals(TAB_TAG_PREFIX + tabId)) {
+                transaction.hide(fragment);
+                transaction.setMaxLifecycle(fragment, Lifecycle.State.STARTED);
+            }
+        }
+
+        // show this tab, reusing its fragment if it was shown before
+        Fragment fragment = fragmentManager.findFragmentByTag(TAB_TAG_PREFIX + tabId);
+        if (fragment == null) {
+            transaction.add(R.id.nav_host, createTab(tabId), TAB_TAG_PREFIX + tabId);
+        } else {
+            transaction.show(fragment);
+            transaction.setMaxLifecycle(fragment, Lifecycle.State.RESUMED);
+        }
+        transaction.commit();
+        selectedTab = tabId;
+    }
+
+    /**
+     * Creates the fragment for a tab.
+     * @param tabId the menu id of the tab
+     * @return the new fragment
+     */
+    private Fragment createTab(int tabId) {
+        switch (tabId) {
+            case R.id.action_habits:
+                return new HabitListFragment();
+            case R.id.action_events:
+                return new HabitEventListFragment();
+            case R.id.action_profile:
+                return new ProfileFragment();
+            case R.id.action_search:
+                return new SearchFragment();
+            default:
+                return new TodayFragment();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ *  OrphanImageCollector
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.Source;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Finds and deletes images in a user's storage folder that no habit event
+ * references any more, such as the images of events removed with their
+ * habit, or images left behind by interrupted edits.
+ * Images newer than a grace period are kept, since their event may still be
+ * waiting to be saved by the ImageUploadQueue.
+ * The store is an ImageStore, so the collector can run against a
+ * LocalImageStore instead of Firebase Storage, e.g. in tests.
+ */
+public class OrphanImageCollector {
+    // constants
+    private static final String TAG = "OrphanImageCollector";
+    private static final int BATCH_SIZE = 20;
+    private static final long GRACE_PERIOD_MS = 24 * 60 * 60 * 1000L;
+
+    private static final ExecutorService background = Executors.newSingleThreadExecutor();
+
+    private final ImageStore store;
+    private final long gracePeriod;
+
+    /**
+     * The result of a collection run.
+     */
+    public static class Report {
+        private int scanned;
+        private int deleted;
+        private int failed;
+        private long bytesReclaimed;
+
+        /**
+         * Scanned getter
+         * @return the number of images listed
+         */
+        public int getScanned() { return scanned; }
+
+        /**
+         * Deleted getter
+         * @return the number of orphaned images deleted
+         */
+        public int getDeleted() { return deleted; }
+
+        /**
+         * Failed getter
+         * @return the number of orphaned images that could not be deleted
+         */
+        public int getFailed() { return failed; }
+
+        /**
+         * Bytes reclaimed getter
+         * @return the total size of the deleted images
+         */
+        public long getBytesReclaimed() { return bytesReclaimed; }
+    }
+
+    /**
+     * Constructor
+     * @param store the image store to clean up
+     */
+    public OrphanImageCollector(ImageStore store) {
+        this(store, GRACE_PERIOD_MS);
+    }
+
+    /**
+     * Constructor
+     * @param store the image store to clean up
+     * @param gracePeriod how long a new image is kept without a reference, in millis
+     */
+    public OrphanImageCollector(ImageStore store, long gracePeriod) {
+        this.store = store;
+        this.gracePeriod = gracePeriod;
+    }
+
+    /**
+     * Runs a collection for the given user on a background thread, against
+     * Firebase Storage, and logs its report. The images still in use are
+     * taken from the user's events collection as read from the server, never
+     * from a copy of the user, which may be an old cached one missing events
+     * added on another device. Only run it for users whose events were
+     * copied to the events collection.
+     * @param username the user whose images to clean up
+     * @return a task resolving to the report; it fails if the events or the
+     * store could not be read, and the next run tries again
+     */
+    public static Task<Report> collectInBackground(String username) {
+        OrphanImageCollector collector = new OrphanImageCollector(new FirebaseImageStore(UserDatabase.getInstance().getStorageRef()));
+        Task<Report> task = Tasks.call(background, () -> {
+            List<HabitEvent> events = Tasks.await(UserDatabase.getInstance().getAllHabitEvents(username, Source.SERVER));
+            return collector.collect(username, events);
+        });
+        task.addOnCompleteListener(done -> {
+            if (done.isSuccessful()) {
+                Report report = done.getResult();
+                Log.i(TAG, "Collected images of " + username + ": scanned " + report.getScanned()
+                        + ", deleted " + report.getDeleted() + ", failed " + report.getFailed()
+                        + ", reclaimed " + report.getBytesReclaimed() + " bytes");
+            } else {
+                Log.w(TAG, "Could not collect images of " + username, done.getException());
+            }
+        });
+        return task;
+    }
+
+    /**
+     * Deletes a user's unreferenced images in batches. Blocks, so must not be
+     * called on the main thread.
+     * @param username the user whose images to clean up
+     * @param events all of the user's habit events
+     * @return a report of what was deleted
+     * @throws Exception if the store could not be listed
+     */
+    public Report collect(String username, List<HabitEvent> events) throws Exception {
+        Report report = new Report();
+
+        // every image and thumbnail the user's events still point to
+        Set<String> referenced = new HashSet<String>();
+        for (HabitEvent event : events) {
+            String image = event.getImage();
+            if (image != null) {
+                referenced.add(image);
+                referenced.add(ImageUploadQueue.thumbRef(image));
+            }
+        }
+
+        // anything else in the user's folder that is old enough is an orphan
+        long cutoff = System.currentTimeMillis() - gracePeriod;
+        List<ImageStore.StoredImage> orphans = new ArrayList<ImageStore.StoredImage>();
+        for (ImageStore.StoredImage image : store.list(username)) {
+            report.scanned++;
+            if (!referenced.contains(image.getRef()) && image.getUpdated() < cutoff) {
+                orphans.add(image);
+            }
+        }
+
+        if (orphans.isEmpty()) {
+            return report;
+        }
+        ExecutorService deleters = Executors.newFixedThreadPool(4);
+        try {
+            for (int start = 0; start < orphans.size(); start += BATCH_SIZE) {
+                // delete one batch in parallel, then wait for it before the next
+                List<ImageStore.StoredImage> batch = orphans.subList(start, Math.min(orphans.size(), start + BATCH_SIZE));
+                List<Callable<Void>> deletes = new ArrayList<Callable<Void>>();
+                for (ImageStore.StoredImage image : batch) {
+                    deletes.add(() -> {
+                        store.delete(image.getRef());
+                        return null;
+                    });
+                }
+                List<Future<Void>> results = deleters.invokeAll(deletes);
+                for (int i = 0; i < results.size(); i++) {
+                    try {
+                        results.get(i).get();
+                        report.deleted++;
+                        report.bytesReclaimed += batch.get(i).getSize();
+                    } catch (Exception e) {
+                        report.failed++;
+                    }
+                }
+            }
+        } finally {
+            deleters.shutdown();
+        }
+        return report;
+    }
+}
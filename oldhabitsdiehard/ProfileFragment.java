@@ -0,0 +1,267 @@
+/*
+ *  ProfileFragment
+ *
+ *  Version 2.0
+ *
+ *  November 28, 2021
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import android.content.Intent;
+import android.os.Build;
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.List;
+
+/**
+ * This class creates a screen for the user to view their profile.
+ *
+ * @author Paige Lekach
+ */
+public class ProfileFragment extends Fragment {
+    private User user;
+    private TextView username;
+    private TextView bio;
+    private TextView followingTitle;
+    private TextView noFollowingTitle;
+    private TextView followersCount;
+    private TextView followingCount;
+    private FollowRequestAdapter followRequestAdapter;
+    private ListenerRegistration countsRegistration;
+
+    /**
+     * Defines action to take when the screen's view is created.
+     * @param inflater the layout inflater
+     * @param container the parent view
+     * @param savedInstanceState the state of the app
+     * @return the screen's view
+     */
+    @RequiresApi(api = Build.VERSION_CODES.O)
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
+        // set the view
+        View root = inflater.inflate(R.layout.profile_view, container, false);
+
+        // get the current user shared by all screens
+        UserViewModel viewModel = new ViewModelProvider(requireActivity()).get(UserViewModel.class);
+        user = viewModel.getCurrentUser();
+
+        // set up UI elements
+        username = root.findViewById(R.id.profile_username);
+        bio = root.findViewById(R.id.bio_profile);
+        followingTitle = root.findViewById(R.id.following_title);
+        noFollowingTitle = root.findViewById(R.id.no_following_header);
+        followersCount = root.findViewById(R.id.profile_followers_count);
+        followingCount = root.findViewById(R.id.profile_following_count);
+        LinearLayout followerLayout = root.findViewById(R.id.followers_layout);
+        LinearLayout followingLayout = root.findViewById(R.id.following_layout);
+        Button logoutButton = root.findViewById(R.id.logout_button);
+        Button editProfileButton = root.findViewById(R.id.edit_profile);
+
+        // define list and adapter for follow requests
+        RecyclerView followRequestsView = root.findViewById(R.id.follow_request_list);
+        followRequestsView.setLayoutManager(new LinearLayoutManager(getContext()));
+        followRequestAdapter = new FollowRequestAdapter();
+        followRequestsView.setAdapter(followRequestAdapter);
+
+        // the follow request title follows the rows of the list
+        followRequestAdapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+            /**
+             * Update the title when follow requests arrive.
+             * @param positionStart the position of the first new request
+             * @param itemCount the number of new requests
+             */
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                bindRequestTitle();
+            }
+
+            /**
+             * Update the title when follow requests are answered or cancelled.
+             * @param positionStart the position of the first removed request
+             * @param itemCount the number of removed requests
+             */
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                bindRequestTitle();
+            }
+        });
+
+        // requests arrive and leave one at a time while the profile is shown
+        new FollowRequestStream(getViewLifecycleOwner(), new FollowRequestStream.Listener() {
+            /**
+             * Shows the requests the user already has.
+             * @param requests the current requests
+             */
+            @Override
+            public void onRequestsLoaded(List<FollowRequest> requests) {
+                followRequestAdapter.setRequests(requests);
+            }
+
+            /**
+             * Adds the row of a new request.
+             * @param request the new request
+             */
+            @Override
+            public void onRequestAdded(FollowRequest request) {
+                followRequestAdapter.addRequest(request);
+            }
+
+            /**
+             * Removes the row of an answered or cancelled request.
+             * @param request the removed request
+             */
+            @Override
+            public void onRequestRemoved(FollowRequest request) {
+                followRequestAdapter.removeRequest(request);
+            }
+        });
+
+        // listener for edit profile button
+        logoutButton.setOnClickListener(new View.OnClickListener() {
+            /**
+             * Defines action to take when the create button is clicked
+             *
+             * @param view
+             */
+            @Override
+            public void onClick(View view) {
+                // end the session, also on later launches
+                Session.end(view.getContext());
+            }
+        });
+
+        editProfileButton.setOnClickListener(new View.OnClickListener() {
+            /**
+             * Start edit profile activity when edit profile button is clicked.
+             * @param view edit profile button
+             */
+            @Override
+            public void onClick(View view) {
+                // create edit profile activity and start it
+                Intent intent = new Intent(view.getContext(), EditProfileActivity.class);
+                startActivity(intent);
+            }
+        });
+
+        // follower layout listener
+        followerLayout.setOnClickListener(new View.OnClickListener() {
+            /**
+             * Start follower activity when follower layout is clicked.
+             * @param view the follower layout
+             */
+            @Override
+            public void onClick(View view) {
+                // create follower activity and start it
+                Intent intent = new Intent(view.getContext(), FollowerActivity.class);
+                startActivity(intent);
+            }
+        });
+
+        // following layout listener
+        followingLayout.setOnClickListener(new View.OnClickListener() {
+            /**
+             * Start following activity when following layout is clicked.
+             * @param view the following layout
+             */
+            @Override
+            public void onClick(View view) {
+                // create following activity and start it
+                Intent intent = new Intent(view.getContext(), FollowingActivity.class);
+                startActivity(intent);
+            }
+        });
+
+        // show the profile again whenever it is edited or followed
+        viewModel.getUser().observe(getViewLifecycleOwner(), changed -> {
+            user = changed;
+
+            // set the username and bio textviews
+            username.setText(user.getUsername());
+            bio.setText(user.getBio());
+        });
+
+        return root;
+    }
+
+    /**
+     * Starts listening for the follower and following counts while the
+     * profile is shown.
+     */
+    @Override
+    public void onStart() {
+        super.onStart();
+        // only the counter shards are read, not the lists themselves
+        countsRegistration = UserDatabase.getInstance().listenToFollowCounts(user.getUsername(), this::bindCounts);
+    }
+
+    /**
+     * Stops listening for the counts.
+     */
+    @Override
+    public void onStop() {
+        if (countsRegistration != null) {
+            countsRegistration.remove();
+            countsRegistration = null;
+        }
+        super.onStop();
+    }
+
+    /**
+     * Shows the follower and following counts.
+     * @param followers the number of followers
+     * @param following the number of followed users
+     */
+    private void bindCounts(long followers, long following) {
+        // set the follower and following counts
+        followersCount.setText(String.valueOf(followers));
+        followingCount.setText(String.valueOf(following));
+    }
+
+    /**
+     * Shows the follow request title if there are follow requests.
+     */
+    private void bindRequestTitle() {
+        // if there are follow requests, show the following title
+        if (followRequestAdapter.getItemCount() > 0) {
+            followingTitle.setVisibility(View.VISIBLE);
+            noFollowingTitle.setVisibility(View.INVISIBLE);
+        } else {
+            followingTitle.setVisibility(View.INVISIBLE);
+            noFollowingTitle.setVisibility(View.VISIBLE);
+        }
+    }
+}
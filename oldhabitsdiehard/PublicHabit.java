@@ -0,0 +1,167 @@
+/*
+ *  PublicHabit
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import android.os.Build;
+
+import androidx.annotation.RequiresApi;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The part of a public habit that other users may see, as stored in a
+ * PublicProfile. The habit's events are left out; only the days it was
+ * done on in the last three weeks are kept, which is all its follow score
+ * looks at, so readers compute the score for their own today and it does
+ * not go stale while the owner is away.
+ */
+public class PublicHabit {
+    // constants
+    // the last three scheduled days of a habit always fall in this many days
+    private static final int RECENT_DAYS = 21;
+
+    private String title;
+    private String reason;
+    private int day;
+    private int month;
+    private int year;
+    private List<Boolean> weekdays;
+    private int score;
+    private List<Long> recentDoneDays; // epoch days, null in older profiles
+
+    /**
+     * Empty constructor for Firestore compatibility
+     */
+    public PublicHabit() {}
+
+    /**
+     * Constructor
+     * @param habit the public habit to show to other users
+     */
+    @RequiresApi(api = Build.VERSION_CODES.O)
+    public PublicHabit(Habit habit) {
+        title = habit.getTitle();
+        reason = habit.getReason();
+        day = habit.getDay();
+        month = habit.getMonth();
+        year = habit.getYear();
+        weekdays = new ArrayList<Boolean>(habit.getWeekdays());
+        score = habit.followScore();
+        // later done days are written with a new profile
+        long since = LocalDate.now().toEpochDay() - RECENT_DAYS;
+        Set<Long> recent = new HashSet<Long>();
+        for (HabitEvent event : habit.getHabitEvents()) {
+            long doneDay = LocalDate.of(event.getYear(), event.getMonth(), event.getDay()).toEpochDay();
+            if (doneDay >= since) {
+                recent.add(doneDay);
+            }
+        }
+        recentDoneDays = new ArrayList<Long>(recent);
+    }
+
+    /**
+     * Title getter
+     * @return the habit title
+     */
+    public String getTitle() { return title; }
+
+    /**
+     * Reason getter
+     * @return the reason for the habit
+     */
+    public String getReason() { return reason; }
+
+    /**
+     * Day getter
+     * @return the day of the month the habit starts on
+     */
+    public int getDay() { return day; }
+
+    /**
+     * Month getter
+     * @return the month the habit starts in, from 1 to 12
+     */
+    public int getMonth() { return month; }
+
+    /**
+     * Year getter
+     * @return the year the habit starts in
+     */
+    public int getYear() { return year; }
+
+    /**
+     * Weekdays getter
+     * @return which days of the week the habit is done on, starting at Sunday
+     */
+    public List<Boolean> getWeekdays() { return weekdays; }
+
+    /**
+     * Score getter
+     * @return the follow score when the profile was written, from 0 to 3,
+     * see scoreOn() for the current score
+     */
+    public int getScore() { return score; }
+
+    /**
+     * Recent done days getter
+     * @return the days the habit was done on in the three weeks before the
+     * profile was written, as epoch days
+     */
+    public List<Long> getRecentDoneDays() { return recentDoneDays; }
+
+    /**
+     * Computes the follow score as of a day, from the recent done days. A day
+     * not in them was either not a done day, or is after the profile was
+     * written and would have written a new profile if the habit was done.
+     * Profiles written before the done days were kept give the score they
+     * were written with.
+     * @param today the current date
+     * @return a score from 0 to 3, with 3 being the best
+     */
+    @RequiresApi(api = Build.VERSION_CODES.O)
+    public int scoreOn(LocalDate today) {
+        if (recentDoneDays == null) {
+            return score;
+        }
+        Set<LocalDate> doneDays = new HashSet<LocalDate>();
+        for (Long doneDay : recentDoneDays) {
+            doneDays.add(LocalDate.ofEpochDay(doneDay));
+        }
+        return Habit.followScore(LocalDate.of(year, month, day), weekdays, doneDays, today);
+    }
+
+    /**
+     * Creates a habit with these details and no events, for the screens that
+     * show a habit.
+     * @return the habit
+     */
+    @RequiresApi(api = Build.VERSION_CODES.O)
+    public Habit toHabit() {
+        return new Habit(title, reason, LocalDate.of(year, month, day), weekdays, true);
+    }
+}
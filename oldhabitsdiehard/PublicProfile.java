@@ -0,0 +1,107 @@
+/*
+ *  PublicProfile
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import android.os.Build;
+
+import androidx.annotation.RequiresApi;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The part of a user that other users may see: their username, bio and
+ * public habits. A copy is kept in the Profiles collection and written
+ * whenever the user is, so other users' screens read this small document
+ * instead of the whole user, which holds private habits and every habit
+ * event. Users saved before profiles existed have none until they next log
+ * in, when they write their own.
+ */
+public class PublicProfile {
+    private String username;
+    private String usernameKey; // the username in lower case, for prefix search
+    private String bio;
+    private int habitCount;
+    private List<PublicHabit> publicHabits;
+    private boolean edgesMirrored; // false while the user's old follow lists are still in use
+
+    /**
+     * Empty constructor for Firestore compatibility
+     */
+    public PublicProfile() {}
+
+    /**
+     * Constructor
+     * @param user the user to make the profile of
+     */
+    @RequiresApi(api = Build.VERSION_CODES.O)
+    public PublicProfile(User user) {
+        username = user.getUsername();
+        usernameKey = UsernameTrie.key(username);
+        bio = user.getBio();
+        habitCount = user.getHabits().size();
+        publicHabits = new ArrayList<PublicHabit>();
+        for (Habit habit : user.getPublicHabits()) {
+            publicHabits.add(new PublicHabit(habit));
+        }
+        edgesMirrored = user.getEdgesMirrored();
+    }
+
+    /**
+     * Username getter
+     * @return the user's username
+     */
+    public String getUsername() { return username; }
+
+    /**
+     * Username key getter
+     * @return the username normalized for searching, see UsernameTrie.key()
+     */
+    public String getUsernameKey() { return usernameKey; }
+
+    /**
+     * Bio getter
+     * @return the user's bio
+     */
+    public String getBio() { return bio; }
+
+    /**
+     * Habit count getter
+     * @return the number of habits the user has, public or not
+     */
+    public int getHabitCount() { return habitCount; }
+
+    /**
+     * Public habits getter
+     * @return the user's public habits, in the user's order
+     */
+    public List<PublicHabit> getPublicHabits() { return publicHabits; }
+
+    /**
+     * Edges mirrored getter
+     * @return true once the user's follows are only kept in the edge
+     * collections, so their old follow lists no longer need to be changed
+     */
+    public boolean getEdgesMirrored() { return edgesMirrored; }
+}
@@ -0,0 +1,113 @@
+/*
+ *  ReadPolicy
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+/**
+ * How a read from the UserDatabase trades latency against freshness. Each
+ * screen picks the policy that suits it, e.g. a profile can be shown from
+ * the cache at once and updated when the server answers, while a check
+ * before a write should only trust the server.
+ *
+ * "The cache" is the database's own cache of recent reads first, and
+ * Firestore's local copy of the documents second.
+ */
+public class ReadPolicy {
+    /**
+     * The kinds of policy.
+     */
+    public enum Mode {
+        CACHE_ONLY,
+        SERVER_ONLY,
+        CACHE_THEN_SERVER,
+        STALE_WHILE_REVALIDATE
+    }
+
+    /**
+     * Reads only from the cache, and fails if the document is not in it.
+     * Never waits for the network.
+     */
+    public static final ReadPolicy CACHE_ONLY = new ReadPolicy(Mode.CACHE_ONLY, 0);
+
+    /**
+     * Reads only from the server, and fails if it cannot be reached.
+     */
+    public static final ReadPolicy SERVER_ONLY = new ReadPolicy(Mode.SERVER_ONLY, 0);
+
+    /**
+     * Delivers the cached copy at once, if there is one, and then the
+     * server's copy, so the listener may be called twice. The cached copy is
+     * skipped if the server answers first. The cache is never taken to say
+     * the document does not exist, so the first call is never given null;
+     * only the server's answer can be.
+     */
+    public static final ReadPolicy CACHE_THEN_SERVER = new ReadPolicy(Mode.CACHE_THEN_SERVER, 0);
+
+    private final Mode mode;
+    private final long maxStaleMillis;
+
+    /**
+     * Callback interface for the result of a read. Called on the main
+     * thread, possibly before the read method returns.
+     * @param <T> the type read
+     */
+    public interface Listener<T> {
+        void onRead(T value, boolean fromCache);
+        void onReadFailed(Exception e);
+    }
+
+    /**
+     * Constructor
+     * @param mode the kind of policy
+     * @param maxStaleMillis how old a cached read may be, if the mode uses it
+     */
+    private ReadPolicy(Mode mode, long maxStaleMillis) {
+        this.mode = mode;
+        this.maxStaleMillis = maxStaleMillis;
+    }
+
+    /**
+     * Delivers a copy read from the server at most maxStaleMillis ago from
+     * the cache, without waiting, and reads the document again in the
+     * background if the copy is no longer fresh, so the next read gets the
+     * newer copy. Older or missing copies are read from the server. The
+     * listener is called once.
+     * @param maxStaleMillis how old a cached read may be
+     * @return the policy
+     */
+    public static ReadPolicy staleWhileRevalidate(long maxStaleMillis) {
+        return new ReadPolicy(Mode.STALE_WHILE_REVALIDATE, maxStaleMillis);
+    }
+
+    /**
+     * Mode getter
+     * @return the kind of policy
+     */
+    public Mode getMode() { return mode; }
+
+    /**
+     * Max staleness getter
+     * @return how old a cached read may be, for STALE_WHILE_REVALIDATE
+     */
+    public long getMaxStaleMillis() { return maxStaleMillis; }
+}
@@ -0,0 +1,345 @@
+/*
+ *  SearchFragment
+ *
+ *  Version 1.0
+ *
+ *  November 28, 2021
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.os.Build;
+import android.os.Bundle;
+import android.provider.BaseColumns;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AdapterView;
+import android.widget.Button;
+import android.widget.SearchView;
+import android.widget.SimpleCursorAdapter;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * This class defines a screen for the search page, where a user can search
+ * for other users in order to request to follow them or view their profile.
+ * Usernames are suggested by a UsernameSearch while the search is typed.
+ *
+ * @author Paige Lekach
+ * @author Claire Martin
+ */
+public class SearchFragment extends Fragment {
+    // constants
+    private static final String SUGGESTION_COLUMN = "username";
+    // a searched profile read this recently is shown without waiting, and so
+    // is a user the server or the username filter said does not exist
+    private static final long SEARCH_MAX_STALE_MILLIS = 5 * 60 * 1000;
+
+    private User user;
+    private PublicProfile searchProfile;
+    private UserDatabase db = UserDatabase.getInstance();
+    private StaticHabitAdapter staticHabitAdapter;
+    private UsernameSearch usernameSearch;
+
+    /**
+     * Declares action to take when this screen's view is created.
+     * @param inflater the layout inflater
+     * @param container the parent view
+     * @param savedInstanceState the saved state
+     * @return the screen's view
+     */
+    @RequiresApi(api = Build.VERSION_CODES.O)
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
+        // set view
+        View root = inflater.inflate(R.layout.search_activity, container, false);
+
+        // get the current user shared by all screens, and follow its changes
+        UserViewModel viewModel = new ViewModelProvider(requireActivity()).get(UserViewModel.class);
+        user = viewModel.getCurrentUser();
+        viewModel.getUser().observe(getViewLifecycleOwner(), changed -> user = changed);
+
+        // set up UI elements
+        SearchView searchView = root.findViewById(R.id.search_bar);
+        TextView searchResultHeader = root.findViewById(R.id.search_result_header);
+        TextView searchUsername = root.findViewById(R.id.search_username);
+        Button requestButton = root.findViewById(R.id.request_search);
+        TextView habitsHeader = root.findViewById(R.id.habits_header_search);
+        RecyclerView userHabitList = root.findViewById(R.id.user_habits);
+        userHabitList.setLayoutManager(new LinearLayoutManager(getContext()));
+
+        // listener for search box
+        searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+            /**
+             * Search for a user when text is submitted in the search box. The
+             * result is shown once their profile is read.
+             * @param s the text that was submitted
+             * @return false, so the search box also handles the submit
+             */
+            @Override
+            public boolean onQueryTextSubmit(String s) {
+                // search for user, reading only their public profile, and
+                // taking a recently read one from the cache. A recent "does
+                // not exist" is shown without a round trip too; the cache is
+                // checked again in the background, so a user who just signed
+                // up is found by the next search
+                db.getProfile(s, ReadPolicy.staleWhileRevalidate(SEARCH_MAX_STALE_MILLIS),
+                        new ReadPolicy.Listener<PublicProfile>() {
+                    /**
+                     * Shows the user that was found.
+                     * @param profile the user's profile, or null if they do not exist
+                     * @param fromCache whether the profile came from the cache
+                     */
+                    @Override
+                    public void onRead(PublicProfile profile, boolean fromCache) {
+                        showProfile(s, profile);
+                    }
+
+                    /**
+                     * Shows that the search found no one.
+                     * @param e the error
+                     */
+                    @Override
+                    public void onReadFailed(Exception e) {
+                        showProfile(s, null);
+                    }
+                });
+                return false;
+            }
+
+            /**
+             * Shows the result of a search.
+             * @param s the username that was searched for
+             * @param profile the profile that was found, or null if none was
+             */
+            private void showProfile(String s, PublicProfile profile) {
+                if (getContext() == null) {
+                    // the screen was closed before the search finished
+                    return;
+                }
+                searchProfile = profile;
+                if (searchProfile != null) {
+                    UsernameSearch.remember(searchProfile.getUsername());
+                    showResult(s);
+                } else {
+                    // searched user does not exist, or has no profile yet
+                    Toast.makeText(getContext(), "No user matches search, or their profile is unavailable\nTry again!", Toast.LENGTH_LONG).show();
+                }
+            }
+
+            /**
+             * Shows the user that was found.
+             * @param s the username that was searched for
+             */
+            private void showResult(String s) {
+                // the user that was searched for exists
+                staticHabitAdapter = new StaticHabitAdapter(new AdapterView.OnItemClickListener() {
+                    /**
+                     * Start a FollowingHabitFragment when a habit in the
+                     * list is clicked.
+                     * @param adapterView the adapter view
+                     * @param view the view that was clicked
+                     * @param position the position of the clicked habit
+                     * @param l
+                     */
+                    @Override
+                    public void onItemClick(AdapterView<?> adapterView, View view, int position, long l) {
+                        // get clicked habit
+                        final Habit habit = staticHabitAdapter.getHabit(position);
+                        // create and show fragment to view habit
+                        FollowingHabitFragment fragment = FollowingHabitFragment.newInstance(habit, s);
+                        fragment.show(getChildFragmentManager(), "VIEW_HABIT");
+                    }
+                });
+                userHabitList.setAdapter(staticHabitAdapter);
+                // show the searched user's public habits
+                staticHabitAdapter.submitProfileHabits(searchProfile.getPublicHabits());
+
+                if(!searchProfile.getUsername().equals(user.getUsername())){
+                    // user searched for a different user, show result
+                    searchResultHeader.setVisibility(View.VISIBLE);
+                    searchUsername.setVisibility(View.VISIBLE);
+                    searchUsername.setText(s);
+                    requestButton.setVisibility(View.VISIBLE);
+
+                    // user can request to follow the searched user, until
+                    // the follow or a request is found
+                    requestButton.setText("Request");
+                    requestButton.setTextColor(getResources().getColor(R.color.blue));//b
+                    requestButton.setBackgroundColor(getResources().getColor(R.color.blueLight)); //lb
+                    habitsHeader.setVisibility(View.INVISIBLE);
+                    userHabitList.setVisibility(View.INVISIBLE);
+
+                    // check for the follow, reading only its edge, and
+                    // then for a request, reading only the request itself
+                    String searched = searchProfile.getUsername();
+                    boolean oldFollowing = user.isFollowing(searched);
+                    db.isFollowing(user.getUsername(), searched).addOnSuccessListener(following -> {
+                        if (getContext() == null || !s.equals(searchUsername.getText().toString())) {
+                            // the screen was closed or another user was searched
+                            return;
+                        }
+                        if (following || oldFollowing) {
+                            // user is following the searched user
+                            habitsHeader.setVisibility(View.VISIBLE);
+                            userHabitList.setVisibility(View.VISIBLE);
+                            requestButton.setText("Following");
+                            requestButton.setTextColor(getResources().getColor(R.color.blue));
+                            requestButton.setBackgroundColor(getResources().getColor(R.color.pink));
+                            return;
+                        }
+                        db.hasFollowRequest(user.getUsername(), searched).addOnSuccessListener(requested -> {
+                            if (requested && getContext() != null
+                                    && s.equals(searchUsername.getText().toString())) {
+                                // user has requested to follow the searched user
+                                requestButton.setText("Requested");
+                                requestButton.setTextColor(getResources().getColor(R.color.blueLight)); //lb
+                                requestButton.setBackgroundColor(getResources().getColor(R.color.blue) ); //b
+                            }
+                        });
+                    });
+                } else {
+                    // user searched for themselves, switch to the profile tab
+                    ((MainActivity) requireActivity()).navigateTo(R.id.action_profile);
+                }
+            }
+
+            /**
+             * Suggest usernames when the query text is changed.
+             * @param s the query text
+             * @return false
+             */
+            @Override
+            public boolean onQueryTextChange(String s) {
+                usernameSearch.onQueryChanged(s);
+                return false;
+            }
+        });
+
+        // suggest usernames while the search is typed
+        SimpleCursorAdapter suggestionAdapter = new SimpleCursorAdapter(requireContext(),
+                android.R.layout.simple_list_item_1, null,
+                new String[] {SUGGESTION_COLUMN}, new int[] {android.R.id.text1}, 0);
+        searchView.setSuggestionsAdapter(suggestionAdapter);
+        usernameSearch = new UsernameSearch((query, usernames) -> {
+            if (!query.equals(searchView.getQuery().toString())) {
+                // the text changed since, newer suggestions are coming
+                return;
+            }
+            MatrixCursor cursor = new MatrixCursor(new String[] {BaseColumns._ID, SUGGESTION_COLUMN});
+            for (int i = 0; i < usernames.size(); i++) {
+                cursor.addRow(new Object[] {i, usernames.get(i)});
+            }
+            suggestionAdapter.changeCursor(cursor);
+        });
+        searchView.setOnSuggestionListener(new SearchView.OnSuggestionListener() {
+            /**
+             * Ignore suggestions being highlighted.
+             * @param position the position of the suggestion
+             * @return false
+             */
+            @Override
+            public boolean onSuggestionSelect(int position) {
+                return false;
+            }
+
+            /**
+             * Search for a suggested user when they are clicked.
+             * @param position the position of the suggestion
+             * @return true, since the click was handled
+             */
+            @Override
+            public boolean onSuggestionClick(int position) {
+                Cursor cursor = suggestionAdapter.getCursor();
+                if (cursor != null && cursor.moveToPosition(position)) {
+                    searchView.setQuery(cursor.getString(cursor.getColumnIndexOrThrow(SUGGESTION_COLUMN)), true);
+                }
+                return true;
+            }
+        });
+
+        // listener for request button
+        requestButton.setOnClickListener(new View.OnClickListener() {
+            /**
+             * Request to follow the searched user when the request button is
+             * clicked.
+             * @param view the request button
+             */
+            @Override
+            public void onClick(View view) {
+                // the request between the user and the searched user
+                FollowRequest request = new FollowRequest(user.getUsername(), searchUsername.getText().toString());
+
+                if(requestButton.getText().toString().equals("Request")) {
+                    // request to follow the searched user, which only writes the request
+                    request.send();
+
+                    // switch to requested button
+                    requestButton.setText("Requested");
+                    requestButton.setTextColor(getResources().getColor(R.color.blueLight)); //lb
+                    requestButton.setBackgroundColor(getResources().getColor(R.color.blue)); //b
+
+                } else if (requestButton.getText().toString().equals("Requested")) {
+                    // user has already requested to follow the searched user
+                    // remove follow request from searched user
+                    request.cancel();
+
+                    // switch to request button
+                    requestButton.setText("Request");
+                    requestButton.setTextColor(getResources().getColor(R.color.blue));
+                    requestButton.setBackgroundColor(getResources().getColor(R.color.blueLight)); //lb
+
+                } else {
+                    // user already follows searched user
+                    // unfollow searched user, which removes both edges
+                    db.unfollow(user.getUsername(), searchUsername.getText().toString());
+                    habitsHeader.setVisibility(View.INVISIBLE);
+                    userHabitList.setVisibility(View.INVISIBLE);
+
+                    // switch to request button
+                    requestButton.setText("Request");
+                    requestButton.setTextColor(getResources().getColor(R.color.blue));
+                    requestButton.setBackgroundColor(getResources().getColor(R.color.blueLight)); //lb
+                }
+            }
+        });
+
+        return root;
+    }
+
+    /**
+     * Cancels the username search when the screen's view is destroyed.
+     */
+    @Override
+    public void onDestroyView() {
+        usernameSearch.cancel();
+        super.onDestroyView();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ *  Session
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+
+/**
+ * The logged in user, saved on the device so the app opens straight to the
+ * main screen on later launches instead of asking to log in again. The user
+ * is then shown from Firestore's local cache while the server is checked.
+ *
+ * The session's token is the salt of the user's Credentials, which changes
+ * whenever the password does, so changing the password on one device ends
+ * the sessions on the others the next time they start.
+ */
+public class Session {
+    // constants
+    private static final String PREFS = "session";
+    private static final String USERNAME_KEY = "username";
+    private static final String TOKEN_KEY = "token";
+
+    /**
+     * Saves the session of a user that logged in.
+     * @param context the context
+     * @param username the user
+     * @param token the salt of the user's credentials, or null if it is not
+     *              known yet, in which case it is saved when the session is
+     *              next checked
+     */
+    public static void save(Context context, String username, String token) {
+        prefs(context).edit()
+                .putString(USERNAME_KEY, username)
+                .putString(TOKEN_KEY, token)
+                .apply();
+    }
+
+    /**
+     * Gets the user of the saved session.
+     * @param context the context
+     * @return the username, or null if no one is logged in
+     */
+    public static String getUsername(Context context) {
+        return prefs(context).getString(USERNAME_KEY, null);
+    }
+
+    /**
+     * Gets the token of the saved session.
+     * @param context the context
+     * @return the token, or null if it is not known yet
+     */
+    public static String getToken(Context context) {
+        return prefs(context).getString(TOKEN_KEY, null);
+    }
+
+    /**
+     * Ends the session and returns to the login screen, closing the main
+     * screens so back does not return to them.
+     * @param context the context
+     */
+    public static void end(Context context) {
+        prefs(context).edit().clear().apply();
+        UserStore.getInstance().stop();
+        Intent intent = new Intent(context, Login.class);
+        intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+        context.startActivity(intent);
+    }
+
+    /**
+     * Gets the session preferences.
+     * @param context the context
+     * @return the preferences
+     */
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+    }
+}
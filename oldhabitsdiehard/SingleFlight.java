@@ -0,0 +1,99 @@
+/*
+ *  SingleFlight
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import com.google.android.gms.tasks.Task;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces concurrent loads of the same key. The first caller for a key
+ * starts the load, and every caller that asks for the key before it
+ * finishes gets the same task instead of starting another read. Once the
+ * load finishes the key is forgotten, so the next call loads again.
+ * Thread safe.
+ * @param <T> the type of the loaded value
+ */
+public class SingleFlight<T> {
+    private final ConcurrentHashMap<String, Task<T>> inFlight = new ConcurrentHashMap<String, Task<T>>();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Starts a load, which is only called when no load for its key is running.
+     * @param <T> the type of the loaded value
+     */
+    public interface Load<T> {
+        /**
+         * Starts loading.
+         * @return the task of the load
+         */
+        Task<T> start();
+    }
+
+    /**
+     * Gets the running load for a key, or starts one.
+     * @param key the key to load
+     * @param load starts the load if none is running
+     * @return the task of the load, shared by every caller for the key
+     */
+    public Task<T> run(String key, Load<T> load) {
+        calls.incrementAndGet();
+        Task<T> running = inFlight.get(key);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            return running;
+        }
+        // only the load that wins the race for the key is started
+        synchronized (this) {
+            running = inFlight.get(key);
+            if (running != null) {
+                coalesced.incrementAndGet();
+                return running;
+            }
+            Task<T> task = load.start();
+            inFlight.put(key, task);
+            task.addOnCompleteListener(Runnable::run, done -> inFlight.remove(key, task));
+            return task;
+        }
+    }
+
+    /**
+     * Gets the number of calls to run().
+     * @return the number of calls
+     */
+    public long getCalls() {
+        return calls.get();
+    }
+
+    /**
+     * Gets the number of calls that shared a load that was already running,
+     * i.e. the reads that were saved.
+     * @return the number of coalesced calls
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ *  StableIds
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import java.util.HashMap;
+
+/**
+ * Hands out RecyclerView stable ids for rows that are identified by a string
+ * key, such as a habit event id or a username. Each key keeps the same id for
+ * as long as the adapter is alive, and no two keys share an id.
+ * Only used from the main thread.
+ */
+public class StableIds {
+    private final HashMap<String, Long> ids = new HashMap<String, Long>();
+    private long next = 0;
+
+    /**
+     * Gets the stable id for a key, assigning a new one the first time the
+     * key is seen.
+     * @param key the key identifying a row
+     * @return the stable id
+     */
+    public long get(String key) {
+        Long id = ids.get(key);
+        if (id == null) {
+            id = next++;
+            ids.put(key, id);
+        }
+        return id;
+    }
+}
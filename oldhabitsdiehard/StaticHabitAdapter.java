@@ -23,83 +23,193 @@
 
 package com.example.oldhabitsdiehard;
 
-import android.content.Context;
 import android.os.Build;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
+import android.widget.AdapterView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
 
-import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Adapter class for the habits.
- * Different from HabitAdapter, does not support clicking habits or reordering.
+ * Different from HabitAdapter, does not support reordering habits.
+ * Habits are turned into precomputed HabitRows in the background, which are
+ * then diffed on a background thread so only rows that changed are rebound.
  *
  * @author Claire Martin
  * @author Rowan Tilroe
  */
-public class StaticHabitAdapter extends ArrayAdapter<Habit> {
-    private Context context;
-    private ArrayList<Habit> habits;
+public class StaticHabitAdapter extends ListAdapter<HabitRow, StaticHabitAdapter.ViewHolder> {
+    // payload for a partial bind, the title is the row's identity so only
+    // the score and due day can change
+    private static final Object PAYLOAD_STATUS = "status";
+
+    private final AdapterView.OnItemClickListener itemClickListener;
+    private final StableIds stableIds = new StableIds();
+
+    /**
+     * Compares rows by habit title, which is unique for a user, and their
+     * contents by row version.
+     */
+    private static final DiffUtil.ItemCallback<HabitRow> DIFF = new DiffUtil.ItemCallback<HabitRow>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull HabitRow oldRow, @NonNull HabitRow newRow) {
+            return oldRow.getTitle().equals(newRow.getTitle());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull HabitRow oldRow, @NonNull HabitRow newRow) {
+            return oldRow.getVersion().equals(newRow.getVersion());
+        }
+
+        /**
+         * Marks a changed row for a status only rebind.
+         * @param oldRow the old row
+         * @param newRow the new row
+         * @return the status payload
+         */
+        @Override
+        public Object getChangePayload(@NonNull HabitRow oldRow, @NonNull HabitRow newRow) {
+            return PAYLOAD_STATUS;
+        }
+    };
 
     /**
      * Constructor
-     * @param context the current context
-     * @param habits an ArrayList of Habits
+     * @param itemClickListener a listener to see if a habit was clicked, can be null
+     */
+    public StaticHabitAdapter(AdapterView.OnItemClickListener itemClickListener) {
+        super(DIFF);
+        this.itemClickListener = itemClickListener;
+        setHasStableIds(true);
+    }
+
+    /**
+     * Shows a new list of habits once their rows are built. The habits are
+     * copied, so the caller can keep changing them and submit them again
+     * after each change.
+     * @param habits the habits to show
      */
     @RequiresApi(api = Build.VERSION_CODES.O)
-    public StaticHabitAdapter(Context context, ArrayList<Habit> habits) {
-        super(context, 0, habits);
-        this.habits = habits;
-        this.context = context;
+    public void submitHabits(List<Habit> habits) {
+        HabitRowBuilder.getInstance().build(habits, this::submitList);
     }
 
     /**
-     * Gets a view for the list of today's habits so that it can be displayed.
-     * @param position the position in the list
-     * @param convertView the selected view
-     * @param parent the parent view, cannot be null
-     * @return the view for the list of today's habits
+     * Shows another user's public habits once their rows are built.
+     * @param habits the public habits to show
      */
     @RequiresApi(api = Build.VERSION_CODES.O)
-    @NonNull
+    public void submitProfileHabits(List<PublicHabit> habits) {
+        HabitRowBuilder.getInstance().buildPublic(habits, this::submitList);
+    }
+
+    /**
+     * Gets the habit shown at a position.
+     * @param position the position in the list
+     * @return the habit
+     */
+    public Habit getHabit(int position) {
+        return getItem(position).getHabit();
+    }
+
+    /**
+     * Gets the stable id of the row at a position.
+     * @param position the position in the list
+     * @return the id
+     */
     @Override
-    public View getView(int position, @Nullable View convertView, @NonNull ViewGroup parent) {
-        // get the convertView
-        View view = convertView;
-        if (view == null) {
-            // inflate layout if view was null
-            view = LayoutInflater.from(context).inflate(R.layout.habit_list_content, parent, false);
-        }
+    public long getItemId(int position) {
+        return stableIds.get(getItem(position).getTitle());
+    }
 
-        // set up textView
-        TextView habitTitle = view.findViewById(R.id.habit_title);
-        Habit habit = habits.get(position);
+    /**
+     * Inflates a row from habit_list_content.
+     * @param parent the parent ViewGroup, cannot be null
+     * @param viewType the type of view
+     * @return a ViewHolder for the row
+     */
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.habit_list_content, parent, false);
+        return new ViewHolder(view);
+    }
 
-        // set the habit title box
-        habitTitle.setText(habit.getTitle());
+    /**
+     * Binds every field of a row.
+     * @param holder the row's ViewHolder
+     * @param position the position in the list
+     */
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        HabitRow row = getItem(position);
+        holder.habitTitle.setText(row.getTitle());
+        holder.bindStatus(row);
+    }
 
-        // show habit score indicator
-        int score = habit.followScore();
-        if (score == 3) {
-            habitTitle.setCompoundDrawablesWithIntrinsicBounds(0, 0, R.drawable.ic_score3habit, 0);
-        }
-        else if (score == 2) {
-            habitTitle.setCompoundDrawablesWithIntrinsicBounds(0, 0, R.drawable.ic_score2habit, 0);
+    /**
+     * Rebinds only the score and due day of a row if that is all that changed.
+     * @param holder the row's ViewHolder
+     * @param position the position in the list
+     * @param payloads the payloads from the differ, empty for a full bind
+     */
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+        } else {
+            holder.bindStatus(getItem(position));
         }
-        else if (score == 1) {
-            habitTitle.setCompoundDrawablesWithIntrinsicBounds(0, 0, R.drawable.ic_score1habit, 0);
+    }
+
+    /**
+     * Holds the views of a habit row.
+     */
+    public class ViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener {
+        TextView habitTitle;
+        TextView nextDue;
+
+        /**
+         * Constructor
+         * @param itemView the row view, cannot be null
+         */
+        public ViewHolder(@NonNull View itemView) {
+            super(itemView);
+            habitTitle = itemView.findViewById(R.id.habit_title);
+            nextDue = itemView.findViewById(R.id.habit_next_due);
+            itemView.setOnClickListener(this);
         }
-        else {
-            habitTitle.setCompoundDrawablesWithIntrinsicBounds(0, 0, R.drawable.ic_score0habit, 0);
+
+        /**
+         * Shows the habit score indicator and next due day.
+         * @param row the row
+         */
+        void bindStatus(HabitRow row) {
+            habitTitle.setCompoundDrawablesWithIntrinsicBounds(0, 0, row.getScoreIcon(), 0);
+            if (nextDue != null) {
+                nextDue.setText(row.getNextDueLabel());
+            }
         }
 
-        return view;
+        /**
+         * Passes a click on the row to the adapter's listener.
+         * @param v the row that was clicked
+         */
+        @Override
+        public void onClick(View v) {
+            int position = getAdapterPosition();
+            if (position != RecyclerView.NO_POSITION && itemClickListener != null) {
+                itemClickListener.onItemClick(null, v, position, getItemId());
+            }
+        }
     }
 }
@@ -0,0 +1,261 @@
+/*
+ *  ThumbnailLoader
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.SystemClock;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.tasks.OnFailureListener;
+import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.firebase.storage.StorageException;
+import com.google.firebase.storage.StreamDownloadTask;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Lazily loads habit event thumbnails into list rows. Thumbnails are kept in
+ * a memory cache, and a download is cancelled when no row is waiting for it
+ * any more (i.e. the row scrolled off screen and was recycled). All methods
+ * must be called on the main thread.
+ */
+public class ThumbnailLoader {
+    private static final ThumbnailLoader instance = new ThumbnailLoader();
+
+    // constants
+    private static final int CACHE_BYTES = 4 * 1024 * 1024;
+    private static final long MAX_THUMB_BYTES = 256 * 1024;
+    private static final int MISSING_SIZE = 512;
+    private static final long MISSING_MILLIS = 10 * 60 * 1000;
+
+    private final LruCache<String, Bitmap> cache;
+    private final Map<String, Request> inFlight;
+    // thumbnails the server said do not exist, with when it said so
+    private final LruCache<String, Long> missing;
+    private final WeakHashMap<ImageView, String> boundViews;
+
+    /**
+     * A download of a single thumbnail.
+     */
+    private static class Request {
+        StreamDownloadTask task;
+        Bitmap bitmap;
+        int waiting;
+        boolean prefetch;
+    }
+
+    /**
+     * Private constructor
+     */
+    private ThumbnailLoader() {
+        cache = new LruCache<String, Bitmap>(CACHE_BYTES) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+        inFlight = new HashMap<String, Request>();
+        missing = new LruCache<String, Long>(MISSING_SIZE);
+        boundViews = new WeakHashMap<ImageView, String>();
+    }
+
+    /**
+     * Get an instance of the ThumbnailLoader
+     * @return handle to ThumbnailLoader
+     */
+    public static ThumbnailLoader getInstance() { return instance; }
+
+    /**
+     * Shows the thumbnail of an image in a view, downloading it if needed.
+     * The placeholder is shown until the download finishes. Any download the
+     * view was previously waiting on is released.
+     * @param imageRef the reference string of the full image
+     * @param placeholder the image's placeholder string, can be null
+     * @param view the view to show the thumbnail in
+     */
+    public void load(String imageRef, String placeholder, ImageView view) {
+        String thumb = ImageUploadQueue.thumbRef(imageRef);
+        String previous = boundViews.put(view, thumb);
+        if (previous != null && !previous.equals(thumb)) {
+            // this row was recycled, it no longer needs the old thumbnail
+            release(previous);
+        } else if (thumb.equals(previous)) {
+            // already bound to this thumbnail
+            return;
+        }
+
+        Bitmap cached = cache.get(thumb);
+        if (cached != null) {
+            view.setImageBitmap(cached);
+            return;
+        }
+        view.setImageBitmap(ImagePlaceholder.decode(placeholder));
+        if (!isMissing(thumb)) {
+            fetch(thumb).waiting++;
+        }
+    }
+
+    /**
+     * Clears a view that no longer shows a thumbnail.
+     * @param view the view to clear
+     */
+    public void clear(ImageView view) {
+        String previous = boundViews.remove(view);
+        if (previous != null) {
+            release(previous);
+        }
+        view.setImageDrawable(null);
+    }
+
+    /**
+     * Starts downloading a thumbnail that will probably be needed soon.
+     * Prefetches are not cancelled when rows are recycled.
+     * @param imageRef the reference string of the full image
+     */
+    public void prefetch(String imageRef) {
+        String thumb = ImageUploadQueue.thumbRef(imageRef);
+        if (cache.get(thumb) == null && !isMissing(thumb)) {
+            fetch(thumb).prefetch = true;
+        }
+    }
+
+    /**
+     * Cancels all downloads, used when the list is closed.
+     */
+    public void cancelAll() {
+        for (Request request : inFlight.values()) {
+            request.task.cancel();
+        }
+        inFlight.clear();
+        boundViews.clear();
+    }
+
+    /**
+     * Gets the download for a thumbnail, starting one if needed.
+     * @param thumb the reference string of the thumbnail
+     * @return the download
+     */
+    private Request fetch(String thumb) {
+        Request existing = inFlight.get(thumb);
+        if (existing != null) {
+            return existing;
+        }
+
+        Request request = new Request();
+        // decode on the download thread so the main thread only sets the bitmap
+        request.task = UserDatabase.getInstance().getStorageRef().child(thumb).getStream(
+                new StreamDownloadTask.StreamProcessor() {
+                    @Override
+                    public void doInBackground(@NonNull StreamDownloadTask.TaskSnapshot state,
+                                               @NonNull InputStream stream) throws IOException {
+                        if (state.getTotalByteCount() > MAX_THUMB_BYTES) {
+                            throw new IOException("Thumbnail too large");
+                        }
+                        request.bitmap = BitmapFactory.decodeStream(stream);
+                        stream.close();
+                    }
+                });
+        request.task.addOnSuccessListener(new OnSuccessListener<StreamDownloadTask.TaskSnapshot>() {
+            /**
+             * Cache the thumbnail and show it in every row waiting for it.
+             * @param snapshot the finished download
+             */
+            @Override
+            public void onSuccess(StreamDownloadTask.TaskSnapshot snapshot) {
+                inFlight.remove(thumb, request);
+                if (request.bitmap == null) {
+                    return;
+                }
+                cache.put(thumb, request.bitmap);
+                for (Map.Entry<ImageView, String> entry : boundViews.entrySet()) {
+                    if (thumb.equals(entry.getValue())) {
+                        entry.getKey().setImageBitmap(request.bitmap);
+                    }
+                }
+            }
+        }).addOnFailureListener(new OnFailureListener() {
+            /**
+             * Older events have no thumbnail, so the row is left empty and the
+             * thumbnail is not requested again for a while. Other failures,
+             * e.g. a lost connection, are retried the next time the row is
+             * shown.
+             * @param e the exception that occurred
+             */
+            @Override
+            public void onFailure(@NonNull Exception e) {
+                inFlight.remove(thumb, request);
+                if (e instanceof StorageException
+                        && ((StorageException) e).getErrorCode() == StorageException.ERROR_OBJECT_NOT_FOUND) {
+                    missing.put(thumb, SystemClock.elapsedRealtime());
+                }
+            }
+        });
+        inFlight.put(thumb, request);
+        return request;
+    }
+
+    /**
+     * Checks whether the server recently said a thumbnail does not exist.
+     * The answer is forgotten after a while, since the thumbnail may still
+     * be uploaded by the ImageUploadQueue.
+     * @param thumb the reference string of the thumbnail
+     * @return true if the thumbnail should not be requested now
+     */
+    private boolean isMissing(String thumb) {
+        Long since = missing.get(thumb);
+        if (since == null) {
+            return false;
+        }
+        if (SystemClock.elapsedRealtime() - since >= MISSING_MILLIS) {
+            missing.remove(thumb);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Releases one row's interest in a thumbnail, cancelling the download if
+     * nothing else is waiting for it.
+     * @param thumb the reference string of the thumbnail
+     */
+    private void release(String thumb) {
+        Request request = inFlight.get(thumb);
+        if (request == null) {
+            return;
+        }
+        request.waiting--;
+        if (request.waiting <= 0 && !request.prefetch) {
+            request.task.cancel();
+            inFlight.remove(thumb);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ *  TodayFragment
+ *
+ *  Version 1.0
+ *
+ *  November 4, 2021
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import android.os.Build;
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * This class creates a screen where the user can view all the habits that
+ * should be done today.
+ *
+ * @author Paige Lekach
+ */
+public class TodayFragment extends Fragment {
+    private User user;
+    private StaticHabitAdapter staticHabitAdapter;
+
+    /**
+     * Sets up UI elements when the screen is created.
+     * @param inflater the layout inflater
+     * @param container the parent view
+     * @param savedInstanceState the current state of the app
+     * @return the screen's view
+     */
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
+        // set up the view
+        View root = inflater.inflate(R.layout.today_view, container, false);
+
+        // set up the today list
+        RecyclerView todaysHabitListView = root.findViewById(R.id.today_habits_list);
+        todaysHabitListView.setLayoutManager(new LinearLayoutManager(getContext()));
+        staticHabitAdapter = new StaticHabitAdapter(null);
+        todaysHabitListView.setAdapter(staticHabitAdapter);
+
+        // show today's habits again whenever the current user changes
+        UserViewModel viewModel = new ViewModelProvider(requireActivity()).get(UserViewModel.class);
+        user = viewModel.getCurrentUser();
+        viewModel.getUser().observe(getViewLifecycleOwner(), changed -> {
+            user = changed;
+            staticHabitAdapter.submitHabits(user.getTodayHabits());
+        });
+
+        return root;
+    }
+
+    /**
+     * Refreshes today's habits whenever the screen is shown, since the day
+     * may have changed while it was hidden.
+     */
+    @RequiresApi(api = Build.VERSION_CODES.O)
+    @Override
+    public void onResume() {
+        super.onResume();
+        //retrieving user's today habits
+        staticHabitAdapter.submitHabits(user.getTodayHabits());
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *  UploadNotifier
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.content.Context;
+import android.os.Build;
+
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+
+/**
+ * Shows the progress of a habit event image upload in a notification, since
+ * the dialog the image was chosen in is closed while it uploads. The
+ * notification is removed once the image is stored, and replaced by a
+ * short message if the upload fails.
+ */
+public class UploadNotifier {
+    // constants
+    private static final String CHANNEL_ID = "image_uploads";
+
+    private final Context context;
+    private final int id;
+    private int shownPercent = -1;
+
+    /**
+     * Constructor
+     * @param context the context to show the notification from
+     * @param refString the reference string of the image being uploaded
+     */
+    public UploadNotifier(Context context, String refString) {
+        this.context = context.getApplicationContext();
+        this.id = refString.hashCode();
+    }
+
+    /**
+     * Shows how much of the image was uploaded.
+     * @param percent the percentage uploaded
+     */
+    public void onProgress(int percent) {
+        if (percent == shownPercent) {
+            // progress is reported often, only changes are shown
+            return;
+        }
+        shownPercent = percent;
+        show(builder()
+                .setContentText("Uploading photo")
+                .setOngoing(true)
+                .setOnlyAlertOnce(true)
+                .setProgress(100, percent, false));
+    }
+
+    /**
+     * Removes the notification once the image is stored.
+     */
+    public void onUploaded() {
+        NotificationManagerCompat.from(context).cancel(CHANNEL_ID, id);
+    }
+
+    /**
+     * Tells the user the image could not be uploaded.
+     */
+    public void onFailed() {
+        show(builder()
+                .setContentText("Photo upload failed, the event was saved without it")
+                .setAutoCancel(true));
+    }
+
+    /**
+     * Starts a notification with the parts every state shares.
+     * @return the builder
+     */
+    private NotificationCompat.Builder builder() {
+        return new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setSmallIcon(R.mipmap.ic_launcher)
+                .setContentTitle("Habit event photo");
+    }
+
+    /**
+     * Shows the notification, replacing the previous state.
+     * @param builder the notification to show
+     */
+    private void show(NotificationCompat.Builder builder) {
+        NotificationManagerCompat manager = NotificationManagerCompat.from(context);
+        if (!manager.areNotificationsEnabled()) {
+            return;
+        }
+        createChannel();
+        manager.notify(CHANNEL_ID, id, builder.build());
+    }
+
+    /**
+     * Creates the notification channel, which is needed from Android 8.
+     */
+    private void createChannel() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationChannel channel = new NotificationChannel(CHANNEL_ID, "Photo uploads", NotificationManager.IMPORTANCE_LOW);
+            context.getSystemService(NotificationManager.class).createNotificationChannel(channel);
+        }
+    }
+}
@@ -27,13 +27,24 @@ import android.os.Build;
 
 import androidx.annotation.RequiresApi;
 
+import com.google.firebase.firestore.Exclude;
+
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.stream.Collectors;
 
 /**
  * This class represents a user.
  *
+ * Membership in the following, followers and follow request lists is checked
+ * through hash indexes, which are built from the lists the first time they
+ * are needed. The lists are what is saved to the database, so they must only
+ * be changed through the methods of this class, which keep the indexes in
+ * sync.
+ *
  * @author Rowan Tilroe
  * @author Claire Martin
  */
@@ -46,6 +57,12 @@ public class User {
     private ArrayList<String> following;
     private ArrayList<String> followers;
     private ArrayList<FollowRequest> followRequests;
+    private boolean eventsMirrored; // true once all events are in the Events collection
+    private boolean edgesMirrored; // true once following and followers are in the edge collections
+    // indexes of the lists above, built when first needed, never saved
+    private LinkedHashSet<String> followingIndex;
+    private LinkedHashSet<String> followersIndex;
+    private LinkedHashMap<String, FollowRequest> followRequestIndex; // keyed by follower
 
     /**
      * User constructor
@@ -92,9 +109,11 @@ public class User {
     public String getUsername() { return username; }
 
     /**
-     * Password getter
-     * @return User's password
+     * Password getter. The password is only kept until the user is added,
+     * it is never saved with the user; see Credentials.
+     * @return User's password, or null if the user was read from the database
      */
+    @Exclude
     public String getPassword() { return password; }
 
     /**
@@ -118,13 +137,15 @@ public class User {
     public String getBio() { return bio; }
 
     /**
-     * Following getter
+     * Following getter. Only holds follows from before the Following
+     * collection, until they are copied there.
      * @return Users that this user is following
      */
     public ArrayList<String> getFollowing() { return following; }
 
     /**
-     * Followers getter
+     * Followers getter. Only holds followers from before the Followers
+     * collection, until they are copied there.
      * @return Users that are following this user
      */
     public ArrayList<String> getFollowers() { return followers; }
@@ -135,6 +156,36 @@ public class User {
      */
     public ArrayList<FollowRequest> getFollowRequests() { return followRequests; }
 
+    /**
+     * Events mirrored getter
+     * @return true if all of this user's habit events have been copied to the
+     * Events collection in the database
+     */
+    public boolean getEventsMirrored() { return eventsMirrored; }
+
+    /**
+     * Events mirrored setter
+     * @param eventsMirrored whether all habit events are in the Events collection
+     */
+    public void setEventsMirrored(boolean eventsMirrored) {
+        this.eventsMirrored = eventsMirrored;
+    }
+
+    /**
+     * Edges mirrored getter
+     * @return true if this user's followers and following lists have been
+     * copied to the edge collections in the database
+     */
+    public boolean getEdgesMirrored() { return edgesMirrored; }
+
+    /**
+     * Edges mirrored setter
+     * @param edgesMirrored whether the follow lists are in the edge collections
+     */
+    public void setEdgesMirrored(boolean edgesMirrored) {
+        this.edgesMirrored = edgesMirrored;
+    }
+
     /**
      * Username setter
      * @param username the user's username
@@ -155,6 +206,7 @@ public class User {
      * @param password the user's password
      * @throws IllegalArgumentException
      */
+    @Exclude
     public void setPassword(String password) throws IllegalArgumentException {
         // make sure length is at least 1
         if (password.length() < 1) {
@@ -201,12 +253,25 @@ public class User {
         }
     }
 
+    /**
+     * Replace a habit event of this user with an edited copy of it. The copy
+     * is matched by id, and moved to another habit if its habit changed.
+     * @param event the edited event
+     */
+    public void updateHabitEvent(HabitEvent event) {
+        deleteHabitEvent(event);
+        addHabitEvent(event);
+    }
+
     /**
      * Add a FollowRequest
      * @param request the request to add
      */
     public void addFollowRequest(FollowRequest request){
-      this.followRequests.add(request);
+        if (!hasFollowRequestFrom(request.getFollower())) {
+            this.followRequests.add(request);
+            followRequestIndex.put(request.getFollower(), request);
+        }
     }
 
     /**
@@ -214,7 +279,18 @@ public class User {
      * @param request the request to remove
      */
     public void removeFollowRequest(FollowRequest request){
-        this.followRequests.remove(request);
+        if (this.followRequests.remove(request) && followRequestIndex != null) {
+            followRequestIndex.remove(request.getFollower());
+        }
+    }
+
+    /**
+     * Remove every FollowRequest, e.g. once they are moved to the
+     * FollowRequests collection
+     */
+    public void clearFollowRequests() {
+        this.followRequests.clear();
+        followRequestIndex = null;
     }
 
     /**
@@ -222,7 +298,9 @@ public class User {
      * @param s the name of the user to remove
      */
     public void removeFollowing(String s){
-        this.following.remove(s);
+        if (this.following.remove(s) && followingIndex != null) {
+            followingIndex.remove(s);
+        }
     }
 
     /**
@@ -230,36 +308,128 @@ public class User {
      * @param s the name of the user to remove
      */
     public void removeFollower(String s){
-        this.followers.remove(s);
+        if (this.followers.remove(s) && followersIndex != null) {
+            followersIndex.remove(s);
+        }
+    }
+
+    /**
+     * Remove several Following users and Followers at once, e.g. once they
+     * are copied to the edge collections
+     * @param followingToRemove the names of the followed users to remove
+     * @param followersToRemove the names of the followers to remove
+     */
+    public void removeFollows(List<String> followingToRemove, List<String> followersToRemove) {
+        // removeAll hashes the argument first, so this stays linear
+        this.following.removeAll(new LinkedHashSet<String>(followingToRemove));
+        this.followers.removeAll(new LinkedHashSet<String>(followersToRemove));
+        followingIndex = null;
+        followersIndex = null;
+    }
+
+    /**
+     * Checks whether this user's following list has a user, in constant time.
+     * @param username the user to look for
+     * @return true if this user follows them
+     */
+    public boolean isFollowing(String username) {
+        if (followingIndex == null) {
+            followingIndex = (following == null) ? new LinkedHashSet<String>() : new LinkedHashSet<String>(following);
+        }
+        return followingIndex.contains(username);
+    }
+
+    /**
+     * Checks whether this user's followers list has a user, in constant time.
+     * @param username the user to look for
+     * @return true if they follow this user
+     */
+    public boolean isFollowedBy(String username) {
+        if (followersIndex == null) {
+            followersIndex = (followers == null) ? new LinkedHashSet<String>() : new LinkedHashSet<String>(followers);
+        }
+        return followersIndex.contains(username);
+    }
+
+    /**
+     * Checks whether this user's follow request list has a request from a
+     * user, in constant time.
+     * @param follower the user that may have sent a request
+     * @return true if they requested to follow this user
+     */
+    public boolean hasFollowRequestFrom(String follower) {
+        if (followRequestIndex == null) {
+            followRequestIndex = new LinkedHashMap<String, FollowRequest>();
+            if (followRequests != null) {
+                for (FollowRequest request : followRequests) {
+                    followRequestIndex.put(request.getFollower(), request);
+                }
+            }
+        }
+        return followRequestIndex.containsKey(follower);
+    }
+
+    /**
+     * Find one of this user's habits by its title, which is unique.
+     * @param title the title of the habit
+     * @return the habit, or null if the user has no habit with this title
+     */
+    public Habit findHabit(String title) {
+        for (Habit habit : habits) {
+            if (habit.getTitle().equals(title)) {
+                return habit;
+            }
+        }
+        return null;
     }
 
     /**
      * Delete a habit from this user.
-     * @param habit the habit to be deleted
+     * @param habit the habit to be deleted, matched by title
      */
     public void deleteHabit(Habit habit) {
-        // remove the habit from the list
-        habits.remove(habit);
-        for (int i = 0; i < habitEvents.size(); i++) {
+        // remove the habit from the list, it may be from an older copy of the user
+        habits.remove(findHabit(habit.getTitle()));
+        // go backwards so removing an event does not skip the next one
+        for (int i = habitEvents.size() - 1; i >= 0; i--) {
             if (habitEvents.get(i).getHabit().equals(habit.getTitle())) {
                 // remove any events associated with it
+                // their images are cleaned up by the OrphanImageCollector
                 habitEvents.remove(i);
             }
         }
     }
 
+    /**
+     * Set the image of one of this user's habit events, keeping the rest of
+     * the event as it is. The event is matched by id.
+     * @param eventId the id of the event
+     * @param image the reference string of the image
+     * @param placeholder the placeholder string for the image
+     */
+    public void setHabitEventImage(String eventId, String image, String placeholder) {
+        // the habits and the list may hold different copies of the event
+        List<HabitEvent> events = new ArrayList<HabitEvent>(habitEvents);
+        for (Habit habit : habits) {
+            events.addAll(habit.getHabitEvents());
+        }
+        for (HabitEvent event : events) {
+            if (eventId.equals(event.getId())) {
+                event.setImage(image);
+                event.setPlaceholder(placeholder);
+            }
+        }
+    }
+
     /**
      * Delete a habit event from this user.
      * @param event the event to be deleted
      */
     public void deleteHabitEvent(HabitEvent event) {
-        // get the habit this event belongs to
-        String habitName = event.getHabit();
+        // remove the event from its habit too, checking every habit since an
+        // edited copy may name a different habit than the original
         for (int i = 0; i < habits.size(); i++) {
-            if (habits.get(i).getTitle().equals(habitName)) {
-                // remove the event from the habit too
-                habits.get(i).removeHabitEvent(event);
-            }
+            habits.get(i).removeHabitEvent(event);
         }
         // remove habit event from list
         habitEvents.remove(event);
@@ -304,19 +474,13 @@ public class User {
         // Generate follow request
         FollowRequest followRequest = new FollowRequest(this.getUsername(), user.getUsername());
 
-        // Check if either already following, or request already created
-        ArrayList<FollowRequest> theirFollowRequests = user.getFollowRequests();
-        if (theirFollowRequests.contains(followRequest) || following.contains(user.getUsername())) {
-            return;
-        }
-
-        // Add follow request
-        theirFollowRequests.add(new FollowRequest(this.getUsername(), user.getUsername()));
-
-        // Update database with new follow request
-        UserDatabase db = UserDatabase.getInstance();
-        db.updateUser(user);
-        db.updateUser(this);
+        // Add follow request, unless already following. Sending it again just
+        // rewrites the same document
+        UserDatabase.getInstance().isFollowing(username, user.getUsername()).addOnSuccessListener(followed -> {
+            if (!followed) {
+                followRequest.send();
+            }
+        });
     }
 
     /**
@@ -324,16 +488,34 @@ public class User {
      * @param user user to unfollow
      */
     public void unfollow(User user) {
-        // Remove given user from this user's following array
-        following.remove(user.getUsername());
-
-        // Remove this user from given user's followers array
-        user.getFollowers().remove(this.username);
+        // Remove both edges and update both counts in the database
+        UserDatabase.getInstance().unfollow(username, user.getUsername());
+    }
 
-        // Update both users in database
-        UserDatabase db = UserDatabase.getInstance();
-        db.updateUser(user);
-        db.updateUser(this);
+    /**
+     * Makes a deep copy of this user, so the copy can be changed while this
+     * user is still being read elsewhere.
+     * @return the copy
+     */
+    public User copy() {
+        User copy = new User();
+        copy.username = username;
+        copy.password = password;
+        copy.bio = bio;
+        copy.eventsMirrored = eventsMirrored;
+        copy.edgesMirrored = edgesMirrored;
+        copy.habits = new ArrayList<Habit>();
+        for (Habit habit : habits) {
+            copy.habits.add(habit.copy());
+        }
+        copy.habitEvents = new ArrayList<HabitEvent>();
+        for (HabitEvent event : habitEvents) {
+            copy.habitEvents.add(event.copy());
+        }
+        copy.following = new ArrayList<String>(following);
+        copy.followers = new ArrayList<String>(followers);
+        copy.followRequests = new ArrayList<FollowRequest>(followRequests);
+        return copy;
     }
 
     /**
@@ -23,30 +23,208 @@
 
 package com.example.oldhabitsdiehard;
 
+import android.os.Build;
+import android.os.SystemClock;
+import android.util.LruCache;
+
+import androidx.annotation.RequiresApi;
+
+import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.Blob;
 import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.EventListener;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.MetadataChanges;
 import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Source;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
 import com.google.firebase.storage.StorageReference;
 import com.google.firebase.storage.UploadTask;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Database for user data. Connects to Firestore.
  *
  * (Collection) Users
  *      (Document) username1 -> (User) obj
+ *          (Collection) Events
+ *              (Document) eventId -> (HabitEvent) obj
+ *          (Collection) FollowRequests
+ *              (Document) follower -> (FollowRequest) obj
+ *          (Collection) Followers
+ *              (Document) follower -> {username}
+ *          (Collection) Following
+ *              (Document) followee -> {username}
+ *          (Collection) Counters
+ *              (Document) followers_0 .. followers_9 -> {count}
+ *              (Document) following_0 .. following_9 -> {count}
  *      (Document) username2 -> (User) obj
  *
+ * (Collection) Profiles
+ *      (Document) username1 -> (PublicProfile) obj
+ *
+ * (Collection) Credentials
+ *      (Document) username1 -> (Credentials) obj
+ *
+ * (Collection) Meta
+ *      (Document) usernames -> {bits, builtAt}, a UsernameFilter
+ *
+ * The Events subcollection mirrors each user's habit events so they can be
+ * queried (e.g. by geohash) without downloading the whole user. Incoming
+ * follow requests are kept one document per follower, so sending, cancelling
+ * and answering a request each write one small document.
+ *
+ * Follows are stored as one edge document on each side, so lists of
+ * followers can be read a page at a time. The follower and following counts
+ * are kept in sharded counters next to the edges: each change increments a
+ * random shard, and a count is the sum of its shards, so a popular user can
+ * be followed by many users at once without contention on one document.
+ *
+ * Each user's public profile is written together with the user, and is all
+ * that other users' screens read of them, including the map of followed
+ * users' events, which reads their public habits' events. Users saved
+ * before profiles existed get one the next time they log in; until then
+ * other users see no profile.
+ *
+ * Passwords are never stored. Each user's salted password hash is kept in
+ * their own small Credentials document, which is all a login reads; the
+ * user is read afterwards. Accounts made before this still hold their
+ * password in the user document, and are moved over the first time they
+ * log in. A session saved on the device stays valid while the salt of the
+ * user's Credentials is unchanged, see Session.
+ *
+ * Profiles can also be read following a ReadPolicy, which lets each screen
+ * choose between the cache, the server, or both. Profiles read from the
+ * server are kept for a while in an in-memory cache with the time they were
+ * read, in front of Firestore's own local copy.
+ *
+ * A Bloom filter of every username in Profiles is rebuilt periodically by a
+ * backend job, which is the only writer of Meta/usernames; clients only
+ * read it. Clients load a copy every 10 minutes. A name that is not in the
+ * filter did not exist when the filter was built, so that answer is as old
+ * as the filter, and it is only given to reads whose ReadPolicy accepts a
+ * cached answer of that age. Every other lookup reads the server.
+ *
  * @author Rowan Tilroe
  */
 public class UserDatabase {
+    // constants
+    public static final String FOLLOWERS = "followers";
+    public static final String FOLLOWING = "following";
+    private static final int COUNTER_SHARDS = 10;
+    private static final int MIRROR_CHUNK = 200; // edges copied per transaction
+    private static final int MAX_IN_VALUES = 30; // the most values a whereIn query accepts
+    private static final int USER_CACHE_SIZE = 200;
+    private static final long USER_CACHE_MILLIS = 60 * 1000;
+    private static final long FILTER_REFRESH_MILLIS = 10 * 60 * 1000;
+
     private static final UserDatabase instance = new UserDatabase();
     private FirebaseFirestore database;
     private FirebaseStorage storage;
     private CollectionReference userCollection;
+    private CollectionReference profileCollection;
+    private CollectionReference credentialCollection;
+    private DocumentReference usernameFilterDocument;
+    private final Random random = new Random();
+    // a profile read as null is a user the server said does not exist
+    private final LruCache<String, Cached<PublicProfile>> profileCache = new LruCache<String, Cached<PublicProfile>>(USER_CACHE_SIZE);
+    // the last username filter loaded, or null if there is none
+    private volatile UsernameFilter usernameFilter;
+    private volatile long filterLoadedAt = -FILTER_REFRESH_MILLIS;
+    private volatile long filterBuiltAt; // on the elapsedRealtime() clock
+    private final AtomicBoolean filterLoading = new AtomicBoolean(false);
+    private final SingleFlight<PublicProfile> profileReads = new SingleFlight<PublicProfile>();
+    // passwords are hashed here, since hashing is deliberately slow
+    private final ExecutorService hashing = Executors.newSingleThreadExecutor();
+
+    /**
+     * A profile read from the server, with the time it was read.
+     * @param <T> the type read
+     */
+    private static class Cached<T> {
+        private final T value;
+        private final long readAt;
+
+        /**
+         * Constructor
+         * @param value what was read
+         */
+        Cached(T value) {
+            this(value, SystemClock.elapsedRealtime());
+        }
+
+        /**
+         * Constructor
+         * @param value what was read
+         * @param readAt when it was true, on the elapsedRealtime() clock
+         */
+        Cached(T value, long readAt) {
+            this.value = value;
+            this.readAt = readAt;
+        }
+
+        /**
+         * Gets how long ago this was read.
+         * @return the age in milliseconds
+         */
+        long age() {
+            return SystemClock.elapsedRealtime() - readAt;
+        }
+
+        /**
+         * Checks whether this was read recently enough to be used again
+         * without asking.
+         * @return true if it can be used
+         */
+        boolean isFresh() {
+            return age() < USER_CACHE_MILLIS;
+        }
+    }
+
+    /**
+     * Reads a document from one source, e.g. the server or Firestore's cache.
+     * @param <T> the type read
+     */
+    private interface Load<T> {
+        Task<T> from(Source source);
+    }
+
+    /**
+     * Receives the follower and following counts of a user.
+     */
+    public interface CountsListener {
+        /**
+         * Called with the counts, and again whenever they change.
+         * @param followers the number of followers
+         * @param following the number of followed users
+         */
+        void onCountsChanged(long followers, long following);
+    }
 
     /**
      * Private constructor
@@ -54,6 +232,9 @@ public class UserDatabase {
     private UserDatabase() {
         database = FirebaseFirestore.getInstance();
         userCollection = database.collection("Users");
+        profileCollection = database.collection("Profiles");
+        credentialCollection = database.collection("Credentials");
+        usernameFilterDocument = database.collection("Meta").document("usernames");
         // create storage instance for storing images
         storage = FirebaseStorage.getInstance();
     }
@@ -74,99 +255,919 @@ public class UserDatabase {
     }
 
     /**
-     * Attempt to add user to database
+     * Attempt to add user to database. The username is checked and the user
+     * is written in one transaction, so two accounts can never get the same
+     * name. The username filter is left to its backend job, so signups do
+     * not all write one document. The user's password is hashed off the main
+     * thread and written as their Credentials, never with the user.
      * @param user User to add
-     * @return true if added, false if not added (i.e. user with username already exists)
+     * @return a task resolving to true if added, and to false if not added
+     * (i.e. user with username already exists); it fails if the transaction
+     * could not run, e.g. when offline
+     */
+    public Task<Boolean> addUser(User user) {
+        String username = user.getUsername();
+        DocumentReference userDocument = userCollection.document(username);
+        // hashed before the transaction, which may run more than once
+        return Tasks.call(hashing, () -> Credentials.of(user.getPassword()))
+                .onSuccessTask(credentials -> database.runTransaction(transaction -> {
+                    // check if user is in the database
+                    if (transaction.get(userDocument).exists()) {
+                        // user already exists
+                        return false;
+                    }
+
+                    // add user to database
+                    transaction.set(userDocument, user);
+                    transaction.set(credentialCollection.document(username), credentials);
+                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                        transaction.set(profileCollection.document(username), new PublicProfile(user));
+                    }
+                    return true;
+                }))
+                .onSuccessTask(added -> {
+                    if (!added) {
+                        return Tasks.forResult(false);
+                    }
+                    // this device knows about the new user at once
+                    profileCache.remove(username);
+                    UsernameFilter filter = usernameFilter;
+                    if (filter != null) {
+                        filter.add(username);
+                    }
+                    return Tasks.forResult(true);
+                });
+    }
+
+    /**
+     * Gets the reads of public profiles, which count how many reads were
+     * shared.
+     * @return the single flight of profile reads
+     */
+    public SingleFlight<PublicProfile> getProfileReads() {
+        return profileReads;
+    }
+
+    /**
+     * Gets the public profiles of several users at once, e.g. to show a list
+     * of them. Duplicate names are read once, profiles read in the last
+     * minute are taken from the cache, and the rest are read with whereIn
+     * queries of up to 30 profiles that all run at the same time. Users
+     * without a profile are left out. Cached profiles are shared between
+     * callers, so they must not be changed.
+     * @param usernames the names of the users to get
+     * @return a task resolving to the profiles, by username
      */
-    public boolean addUser(User user) {
-        // check if user is in the database
-        User check = getUser(user.getUsername());
-        if (check != null) {
-            // user already exists
-            return false;
+    public Task<Map<String, PublicProfile>> getProfiles(Collection<String> usernames) {
+        Map<String, PublicProfile> result = new HashMap<String, PublicProfile>();
+        List<String> missing = new ArrayList<String>();
+        for (String username : new LinkedHashSet<String>(usernames)) {
+            Cached<PublicProfile> cached = profileCache.get(username);
+            if (cached == null || !cached.isFresh()) {
+                missing.add(username);
+            } else if (cached.value != null) {
+                result.put(username, cached.value);
+            }
+        }
+
+        List<Task<QuerySnapshot>> queries = new ArrayList<Task<QuerySnapshot>>();
+        for (int start = 0; start < missing.size(); start += MAX_IN_VALUES) {
+            List<String> chunk = missing.subList(start, Math.min(missing.size(), start + MAX_IN_VALUES));
+            queries.add(profileCollection.whereIn(FieldPath.documentId(), new ArrayList<String>(chunk)).get());
         }
-        else {
-            // add user to database
-            userCollection.document(user.getUsername()).set(user);
-            return true;
+        return Tasks.whenAllSuccess(queries).continueWith(task -> {
+            for (Object snapshot : task.getResult()) {
+                for (DocumentSnapshot document : ((QuerySnapshot) snapshot).getDocuments()) {
+                    PublicProfile profile = document.toObject(PublicProfile.class);
+                    if (profile != null) {
+                        profileCache.put(document.getId(), new Cached<PublicProfile>(profile));
+                        result.put(document.getId(), profile);
+                    }
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Saves a user that is known to exist, e.g. the logged in user, without
+     * checking for them first.
+     * @param user user to save
+     * @return the write task
+     */
+    public Task<Void> saveUser(User user) {
+        return writeUser(user);
+    }
+
+    /**
+     * Writes a user and their public profile in one batch.
+     * @param user user to write
+     * @return the write task
+     */
+    private Task<Void> writeUser(User user) {
+        profileCache.remove(user.getUsername());
+        WriteBatch batch = database.batch();
+        batch.set(userCollection.document(user.getUsername()), user);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            batch.set(profileCollection.document(user.getUsername()), new PublicProfile(user));
+        }
+        return batch.commit();
+    }
+
+    /**
+     * Gets the public profile of a user, which is all other users may see of
+     * them. Concurrent reads of the same profile share one read.
+     * @param username the user whose profile to get
+     * @return a task resolving to the profile, or to null if the user does
+     * not exist or has no profile yet, see refreshProfile()
+     */
+    public Task<PublicProfile> getProfile(String username) {
+        return readProfile(username, Source.DEFAULT);
+    }
+
+    /**
+     * Gets the public profile of a user following a read policy, see
+     * getProfile(String). A user the server recently said does not exist, or
+     * who is not in the username filter, is answered from the cache with
+     * null, for the policies that accept a cached answer of that age.
+     * @param username the user whose profile to get
+     * @param policy how to trade latency against freshness
+     * @param listener given the profile, or null if the user does not exist
+     * or has no profile yet
+     */
+    public void getProfile(String username, ReadPolicy policy, ReadPolicy.Listener<PublicProfile> listener) {
+        Cached<PublicProfile> cached = profileCache.get(username);
+        if (cached == null) {
+            cached = filterAnswer(username);
         }
+        read(policy, cached, source -> readProfile(username, source), listener);
     }
 
     /**
-     * Attempt to get User with given username
-     * @param username Username of user to find
-     * @return user found (NULL if no user found)
+     * Reads a public profile from one source. Concurrent reads of the same
+     * profile from the same source share one read.
+     * @param username the user whose profile to read
+     * @param source where to read the profile from
+     * @return a task resolving to the profile, or to null if there is none
      */
-    public User getUser(String username) {
-        User result = null;
+    private Task<PublicProfile> readProfile(String username, Source source) {
+        return profileReads.run(source + "/" + username, () -> loadProfile(username, source));
+    }
+
+    /**
+     * Reads a public profile from one source. Profiles read from the server
+     * are cached, and so is finding that there is none.
+     * @param username the user whose profile to read
+     * @param source where to read the profile from
+     * @return a task resolving to the profile, or to null if there is none
+     */
+    private Task<PublicProfile> loadProfile(String username, Source source) {
+        return profileCollection.document(username).get(source).continueWith(task -> {
+            DocumentSnapshot document = task.getResult();
+            PublicProfile profile = document.toObject(PublicProfile.class);
+            if (!document.getMetadata().isFromCache()) {
+                profileCache.put(username, new Cached<PublicProfile>(profile));
+            }
+            return profile;
+        });
+    }
+
+    /**
+     * Writes the logged in user's public profile again, when their session
+     * starts. Users saved before profiles existed get one, and profiles
+     * written by older versions get the fields they lack. Only the owner
+     * writes their profile, so other users never read the user to make one.
+     * @param user the logged in user
+     * @return the write task
+     */
+    @RequiresApi(api = Build.VERSION_CODES.O)
+    public Task<Void> refreshProfile(User user) {
+        profileCache.remove(user.getUsername());
+        return profileCollection.document(user.getUsername()).set(new PublicProfile(user));
+    }
+
+    /**
+     * Reads a document following a read policy. The cache is checked first
+     * for the policies that use it, then Firestore's local copy.
+     * @param policy how to trade latency against freshness
+     * @param cached the last copy read from the server, or null if there is none
+     * @param load reads the document from a source
+     * @param listener given what was read
+     * @param <T> the type read
+     */
+    private <T> void read(ReadPolicy policy, Cached<T> cached, Load<T> load, ReadPolicy.Listener<T> listener) {
+        switch (policy.getMode()) {
+            case CACHE_ONLY:
+                if (cached != null) {
+                    listener.onRead(cached.value, true);
+                } else {
+                    deliver(load.from(Source.CACHE), true, listener);
+                }
+                break;
+            case SERVER_ONLY:
+                deliver(load.from(Source.SERVER), false, listener);
+                break;
+            case CACHE_THEN_SERVER:
+                Task<T> server = load.from(Source.SERVER);
+                Task<T> local = (cached != null) ? Tasks.forResult(cached.value) : load.from(Source.CACHE);
+                local.addOnSuccessListener(value -> {
+                    // a copy that is not in the cache is not an error here,
+                    // and a cached copy is not shown over the server's. A
+                    // cached "does not exist" is not shown either, so a screen
+                    // does not show a user as missing until the server says so
+                    if (value != null && !server.isComplete()) {
+                        listener.onRead(value, true);
+                    }
+                });
+                deliver(server, false, listener);
+                break;
+            default:
+                if (cached != null && cached.age() <= policy.getMaxStaleMillis()) {
+                    listener.onRead(cached.value, true);
+                    if (!cached.isFresh()) {
+                        // refresh the cache for the next read
+                        load.from(Source.SERVER);
+                    }
+                } else {
+                    deliver(load.from(Source.SERVER), false, listener);
+                }
+                break;
+        }
+    }
 
-        DocumentReference userDocRef = userCollection.document(username);
-        Task<DocumentSnapshot> task = userDocRef.get();
-        while (!task.isComplete()) {}
-        result = task.getResult().toObject(User.class);
+    /**
+     * Passes the result of a read to a listener.
+     * @param task the read
+     * @param fromCache whether the read is from the cache
+     * @param listener given the result
+     * @param <T> the type read
+     */
+    private <T> void deliver(Task<T> task, boolean fromCache, ReadPolicy.Listener<T> listener) {
+        task.addOnCompleteListener(done -> {
+            if (done.isSuccessful()) {
+                listener.onRead(done.getResult(), fromCache);
+            } else {
+                listener.onReadFailed(done.getException());
+            }
+        });
+    }
 
-        return result;
+    /**
+     * Listens for changes to a user's document. The listener is called once
+     * with the current state and again after every change, including when
+     * the server acknowledges a local write, so the listener sees the state
+     * without pending writes even if nothing else changed.
+     * @param username the user to listen to
+     * @param listener called with each new state of the document
+     * @return the registration, used to stop listening
+     */
+    public ListenerRegistration listenToUser(String username, EventListener<DocumentSnapshot> listener) {
+        return userCollection.document(username).addSnapshotListener(MetadataChanges.INCLUDE, listener);
     }
 
     /**
-     * Updates the user's state in the database
-     * @param user user to update
-     * @return true if update successful, false if unsuccessful (i.e. User does not exist in
+     * Answers a lookup from the username filter, without reading from the
+     * database. Starts loading a newer filter if the one loaded is old.
+     * @param username the user to look up
+     * @return a cached "does not exist" as old as the filter, if the user is
+     * not in it, or null if the filter cannot answer
      */
-    public boolean updateUser(User user) {
-        // check if user is in database already
-        User check = getUser(user.getUsername());
-        if (check == null) {
-            // user does not exist
-            return false;
+    private Cached<PublicProfile> filterAnswer(String username) {
+        refreshUsernameFilter();
+        UsernameFilter filter = usernameFilter;
+        if (filter == null || filter.mightContain(username)) {
+            return null;
         }
-        else {
-            // update user in database
-            userCollection.document(user.getUsername()).set(user);
-            return true;
+        // the user did not exist when the filter was built, and may have
+        // signed up since
+        return new Cached<PublicProfile>(null, filterBuiltAt);
+    }
+
+    /**
+     * Loads the username filter in the background if it was last loaded more
+     * than 10 minutes ago. The filter is only read, it is built by a backend
+     * job.
+     */
+    private void refreshUsernameFilter() {
+        if (SystemClock.elapsedRealtime() - filterLoadedAt < FILTER_REFRESH_MILLIS
+                || !filterLoading.compareAndSet(false, true)) {
+            return;
         }
+        usernameFilterDocument.get().addOnCompleteListener(task -> {
+            filterLoading.set(false);
+            if (!task.isSuccessful()) {
+                return;
+            }
+            filterLoadedAt = SystemClock.elapsedRealtime();
+            DocumentSnapshot document = task.getResult();
+            Timestamp builtAt = document.getTimestamp("builtAt");
+            UsernameFilter filter = storedFilter(document);
+            if (builtAt == null || filter == null) {
+                // until it is built, every user might exist
+                usernameFilter = null;
+                return;
+            }
+            // the build time on this device's clock, never in the future
+            long age = Math.max(0, System.currentTimeMillis() - builtAt.toDate().getTime());
+            filterBuiltAt = SystemClock.elapsedRealtime() - age;
+            usernameFilter = filter;
+        });
     }
 
     /**
-     * Attempt to delete user from database
-     * @param user User to delete
-     * @return true if deletion successful, false if unsuccessful (i.e. User doesn't exist)
+     * Reads the username filter from its document.
+     * @param document the filter document
+     * @return the filter, or null if there is none or it has another size
      */
-    public boolean deleteUser(User user) {
-        // check if user is in database
-        User check = getUser(user.getUsername());
-        if (check == null) {
-            // user does not exist
-            return false;
+    private static UsernameFilter storedFilter(DocumentSnapshot document) {
+        Blob bits = document.getBlob("bits");
+        if (bits == null) {
+            return null;
         }
-        else {
-            // delete user from database
-            userCollection.document(user.getUsername()).delete();
-            return true;
+        try {
+            return new UsernameFilter(bits.toBytes());
+        } catch (IllegalArgumentException e) {
+            return null;
         }
     }
 
     /**
-     * Attempt to verify login information
+     * Listens for the usernames starting with a prefix, matched without
+     * case, in alphabetical order. Removing the registration cancels the
+     * query if it has not finished yet.
+     * @param prefix the start of the username
+     * @param limit the most users to find
+     * @param listener called with the matching profiles
+     * @return the registration, used to stop listening
+     */
+    public ListenerRegistration findUsernames(String prefix, int limit, EventListener<QuerySnapshot> listener) {
+        String key = UsernameTrie.key(prefix);
+        return profileCollection.orderBy("usernameKey")
+                .startAt(key)
+                .endAt(key + "\uf8ff")
+                .limit(limit)
+                .addSnapshotListener(listener);
+    }
+
+    /**
+     * Checks login information against the user's Credentials document only,
+     * so the check costs the same for every account, however many habits and
+     * events it holds. The user is not read; see UserStore.start(String).
+     * An account whose password is still in its user document is checked
+     * against that instead, and is given Credentials when the check passes.
      * @param username the entered username
      * @param password the entered password
-     * @return NULL if login information fails, User object if login information correct
+     * @return a task resolving to the user's credentials if the login
+     * information is correct, and to null if the user does not exist or the
+     * password is wrong
+     */
+    public Task<Credentials> checkCredentials(String username, String password) {
+        DocumentReference credentialDocument = credentialCollection.document(username);
+        return credentialDocument.get().continueWithTask(hashing, task -> {
+            DocumentSnapshot snapshot = task.getResult();
+            if (snapshot.exists()) {
+                Credentials credentials = snapshot.toObject(Credentials.class);
+                return Tasks.forResult((credentials != null && credentials.matches(password)) ? credentials : null);
+            }
+            // accounts made before Credentials existed keep the password
+            // in the user document
+            DocumentReference userDocument = userCollection.document(username);
+            return userDocument.get().continueWithTask(hashing, userTask -> {
+                String stored = userTask.getResult().getString("password");
+                if (stored == null || !stored.equals(password)) {
+                    return Tasks.<Credentials>forResult(null);
+                }
+                // move the password over, so it is only ever checked as a
+                // hash. The login waits for the write, so the session does
+                // not start with the user's own write still pending
+                Credentials credentials = Credentials.of(password);
+                WriteBatch batch = database.batch();
+                batch.set(credentialDocument, credentials);
+                batch.update(userDocument, "password", FieldValue.delete());
+                return batch.commit().continueWith(committed -> credentials);
+            });
+        });
+    }
+
+    /**
+     * Changes a user's password, replacing their Credentials.
+     * @param username the user
+     * @param password the new password
+     * @return a task resolving to the new Credentials once they are written
+     */
+    public Task<Credentials> setPassword(String username, String password) {
+        return Tasks.call(hashing, () -> Credentials.of(password))
+                .onSuccessTask(credentials -> credentialCollection.document(username).set(credentials)
+                        .onSuccessTask(written -> Tasks.forResult(credentials)));
+    }
+
+    /**
+     * Reads the token a saved Session of a user must have to still be valid,
+     * which is the salt of their Credentials. It is always read from the
+     * server, since a cached copy would not show a password changed
+     * elsewhere.
+     * @param username the user
+     * @return a task resolving to the token, or to null if the user has no
+     * Credentials; it fails when the server cannot be reached
+     */
+    public Task<String> getSessionToken(String username) {
+        return credentialCollection.document(username).get(Source.SERVER)
+                .continueWith(task -> task.getResult().getString("salt"));
+    }
+
+    /**
+     * Gets the collection holding a user's habit events.
+     * @param username the user the events belong to
+     * @return the events collection
+     */
+    private CollectionReference eventCollection(String username) {
+        return userCollection.document(username).collection("Events");
+    }
+
+    /**
+     * Saves a habit event to the user's events collection, giving it an id
+     * first if it does not have one yet.
+     * @param username the user the event belongs to
+     * @param event the event to save
+     * @return the write task
+     */
+    public Task<Void> saveHabitEvent(String username, HabitEvent event) {
+        if (event.getId() == null) {
+            // events saved before ids existed get one now
+            event.setId(UUID.randomUUID().toString());
+        }
+        return eventCollection(username).document(event.getId()).set(event);
+    }
+
+    /**
+     * Points a saved habit event at its image once the image is stored. Only
+     * the image fields are written, so edits made during the upload are kept.
+     * Fails if the event was deleted meanwhile.
+     * @param username the user the event belongs to
+     * @param eventId the id of the event
+     * @param image the reference string of the image
+     * @param placeholder the placeholder string for the image
+     * @return the update task
+     */
+    public Task<Void> setHabitEventImage(String username, String eventId, String image, String placeholder) {
+        return eventCollection(username).document(eventId)
+                .update("image", image, "placeholder", placeholder);
+    }
+
+    /**
+     * Deletes a habit event from the user's events collection.
+     * @param username the user the event belongs to
+     * @param event the event to delete
+     * @return the delete task
+     */
+    public Task<Void> deleteHabitEvent(String username, HabitEvent event) {
+        if (event.getId() == null) {
+            // never saved to the events collection
+            return Tasks.forResult(null);
+        }
+        return eventCollection(username).document(event.getId()).delete();
+    }
+
+    /**
+     * Copies all of a user's habit events to the events collection, for
+     * events saved before the collection existed. Writes are batched.
+     * @param user the user whose events to copy
+     * @return a task that completes when every batch is written
+     */
+    public Task<Void> mirrorHabitEvents(User user) {
+        List<Task<Void>> batches = new ArrayList<Task<Void>>();
+        List<HabitEvent> events = user.getHabitEvents();
+        // a batch can hold at most 500 writes
+        for (int start = 0; start < events.size(); start += 500) {
+            WriteBatch batch = database.batch();
+            for (HabitEvent event : events.subList(start, Math.min(events.size(), start + 500))) {
+                if (event.getId() == null) {
+                    event.setId(UUID.randomUUID().toString());
+                }
+                batch.set(eventCollection(user.getUsername()).document(event.getId()), event);
+            }
+            batches.add(batch.commit());
+        }
+        return Tasks.whenAll(batches);
+    }
+
+    /**
+     * Gets a query for a user's habit events, newest first. Events on the
+     * same day are ordered by id so pages can continue from any event.
+     * @param username the user whose events to get
+     * @param habit only get events of this habit, or null for all events
+     * @return the query
+     */
+    public Query habitEventsByDate(String username, String habit) {
+        Query query = eventCollection(username);
+        if (habit != null) {
+            query = query.whereEqualTo("habit", habit);
+        }
+        return query.orderBy("dateKey", Query.Direction.DESCENDING)
+                .orderBy(FieldPath.documentId(), Query.Direction.DESCENDING);
+    }
+
+    /**
+     * Gets all of a user's habit events from one source, e.g. from the server
+     * when a cached copy could be missing events.
+     * @param username the user whose events to get
+     * @param source where to read the events from
+     * @return a task resolving to the events
+     */
+    public Task<List<HabitEvent>> getAllHabitEvents(String username, Source source) {
+        return eventCollection(username).get(source)
+                .continueWith(task -> task.getResult().toObjects(HabitEvent.class));
+    }
+
+    /**
+     * Gets a user's habit events of some habits, e.g. of their public
+     * habits, with whereIn queries of up to 30 habits that all run at the
+     * same time.
+     * @param username the user the events belong to
+     * @param habits the titles of the habits
+     * @return a task resolving to the events
+     */
+    public Task<List<HabitEvent>> getHabitEvents(String username, List<String> habits) {
+        List<Task<QuerySnapshot>> queries = new ArrayList<Task<QuerySnapshot>>();
+        for (int start = 0; start < habits.size(); start += MAX_IN_VALUES) {
+            List<String> chunk = habits.subList(start, Math.min(habits.size(), start + MAX_IN_VALUES));
+            queries.add(eventCollection(username).whereIn("habit", new ArrayList<String>(chunk)).get());
+        }
+        return Tasks.whenAllSuccess(queries).continueWith(task -> {
+            List<HabitEvent> result = new ArrayList<HabitEvent>();
+            for (Object snapshot : task.getResult()) {
+                result.addAll(((QuerySnapshot) snapshot).toObjects(HabitEvent.class));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Gets the collection holding the follow requests sent to a user.
+     * @param followee the user the requests were sent to
+     * @return the follow requests collection
+     */
+    private CollectionReference followRequestCollection(String followee) {
+        return userCollection.document(followee).collection("FollowRequests");
+    }
+
+    /**
+     * Sends a follow request, stored under the followee by follower.
+     * @param request the request to send
+     * @return the write task
+     */
+    public Task<Void> sendFollowRequest(FollowRequest request) {
+        return followRequestCollection(request.getFollowee()).document(request.getFollower()).set(request);
+    }
+
+    /**
+     * Removes a follow request, when it is cancelled or denied. Requests
+     * from before the FollowRequests collection are removed from the
+     * followee's document too.
+     * @param request the request to remove
+     * @return the write task
      */
-    public User checkLogin(String username, String password) {
-        // try to get the user from the database
-        User user = getUser(username);
-        if (user == null) {
-            // user does not exist
+    public Task<Void> deleteFollowRequest(FollowRequest request) {
+        WriteBatch batch = database.batch();
+        batch.delete(followRequestCollection(request.getFollowee()).document(request.getFollower()));
+        batch.update(userCollection.document(request.getFollowee()), "followRequests", FieldValue.arrayRemove(request));
+        return batch.commit();
+    }
+
+    /**
+     * Accepts a follow request: removes it, adds the follow edges and counts
+     * the new follower and followee, all in one transaction. Accepting a
+     * request that was already accepted only removes it.
+     * @param request the request to accept
+     * @return the write task
+     */
+    public Task<Void> acceptFollowRequest(FollowRequest request) {
+        String follower = request.getFollower();
+        String followee = request.getFollowee();
+        DocumentReference followerEdge = followerCollection(followee).document(follower);
+        DocumentReference followingEdge = followingCollection(follower).document(followee);
+        return database.runTransaction(transaction -> {
+            // all reads must happen before the writes
+            boolean hasFollowerEdge = transaction.get(followerEdge).exists();
+            boolean hasFollowingEdge = transaction.get(followingEdge).exists();
+            transaction.delete(followRequestCollection(followee).document(follower));
+            transaction.update(userCollection.document(followee), "followRequests", FieldValue.arrayRemove(request));
+            if (!hasFollowerEdge) {
+                transaction.set(followerEdge, edge(follower));
+                incrementCounter(transaction, followee, FOLLOWERS, 1);
+            }
+            if (!hasFollowingEdge) {
+                transaction.set(followingEdge, edge(followee));
+                incrementCounter(transaction, follower, FOLLOWING, 1);
+            }
             return null;
-        } else {
-            // check password
-            if (password.equals(user.getPassword())) {
-                // login successful
-                return user;
-            } else {
-                // login failed
-                return null;
+        });
+    }
+
+    /**
+     * Ends a follow, when the follower unfollows or the followee removes the
+     * follower. Both edges are removed and counted in one transaction. A
+     * user whose follow lists from before the edge collections were not
+     * copied yet also has the follow removed from their list, so copying
+     * it later does not bring the follow back; users that were copied only
+     * have their edges and counters written.
+     * @param follower the following user
+     * @param followee the followed user
+     * @return the write task
+     */
+    public Task<Void> unfollow(String follower, String followee) {
+        DocumentReference followerEdge = followerCollection(followee).document(follower);
+        DocumentReference followingEdge = followingCollection(follower).document(followee);
+        return database.runTransaction(transaction -> {
+            boolean hasFollowerEdge = transaction.get(followerEdge).exists();
+            boolean hasFollowingEdge = transaction.get(followingEdge).exists();
+            boolean followeeLegacy = hasLegacyFollows(transaction, followee);
+            boolean followerLegacy = hasLegacyFollows(transaction, follower);
+            if (followeeLegacy) {
+                transaction.update(userCollection.document(followee), "followers", FieldValue.arrayRemove(follower));
+            }
+            if (followerLegacy) {
+                transaction.update(userCollection.document(follower), "following", FieldValue.arrayRemove(followee));
+            }
+            if (hasFollowerEdge) {
+                transaction.delete(followerEdge);
+                incrementCounter(transaction, followee, FOLLOWERS, -1);
+            }
+            if (hasFollowingEdge) {
+                transaction.delete(followingEdge);
+                incrementCounter(transaction, follower, FOLLOWING, -1);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Checks, inside a transaction, whether a user's follow lists from before
+     * the edge collections may still hold follows. The user's small public
+     * profile says so; only a user with no profile yet, who has not logged
+     * in since profiles were added, has their user document read.
+     * @param transaction the transaction to read in
+     * @param username the user to check
+     * @return true if the user exists and their old lists were not copied
+     * @throws FirebaseFirestoreException if a read fails
+     */
+    private boolean hasLegacyFollows(Transaction transaction, String username) throws FirebaseFirestoreException {
+        DocumentSnapshot profile = transaction.get(profileCollection.document(username));
+        if (profile.exists()) {
+            return !Boolean.TRUE.equals(profile.getBoolean("edgesMirrored"));
+        }
+        DocumentSnapshot user = transaction.get(userCollection.document(username));
+        return user.exists() && !Boolean.TRUE.equals(user.getBoolean("edgesMirrored"));
+    }
+
+    /**
+     * Checks whether one user follows another, reading only the edge.
+     * @param follower the user that may be following
+     * @param followee the user that may be followed
+     * @return a task resolving to true if the follow exists
+     */
+    public Task<Boolean> isFollowing(String follower, String followee) {
+        return followingCollection(follower).document(followee).get()
+                .continueWith(task -> task.getResult().exists());
+    }
+
+    /**
+     * Gets a query for a user's followers, ordered by username so pages can
+     * continue from any follower.
+     * @param username the followed user
+     * @return the query
+     */
+    public Query followersByName(String username) {
+        return followerCollection(username).orderBy(FieldPath.documentId());
+    }
+
+    /**
+     * Gets a query for the users a user follows, ordered by username so pages
+     * can continue from any of them.
+     * @param username the following user
+     * @return the query
+     */
+    public Query followingByName(String username) {
+        return followingCollection(username).orderBy(FieldPath.documentId());
+    }
+
+    /**
+     * Gets the names of every user a user follows, for screens that need all
+     * of them at once (e.g. the event map). Only the edges are read.
+     * @param username the following user
+     * @return a task resolving to the followed usernames
+     */
+    public Task<List<String>> getFollowing(String username) {
+        return followingCollection(username).get().continueWith(task -> {
+            List<String> following = new ArrayList<String>();
+            for (DocumentSnapshot document : task.getResult().getDocuments()) {
+                following.add(document.getId());
+            }
+            return following;
+        });
+    }
+
+    /**
+     * Listens for a user's follower and following counts. Only the counter
+     * shards are read, however many followers the user has.
+     * @param username the user to count for
+     * @param listener called with the counts, and again after each change
+     * @return the registration, used to stop listening
+     */
+    public ListenerRegistration listenToFollowCounts(String username, CountsListener listener) {
+        return counterCollection(username).addSnapshotListener((snapshot, e) -> {
+            if (e != null || snapshot == null) {
+                return;
             }
+            long followers = 0;
+            long following = 0;
+            for (DocumentSnapshot shard : snapshot.getDocuments()) {
+                Long count = shard.getLong("count");
+                if (count == null) {
+                    continue;
+                }
+                if (shard.getId().startsWith(FOLLOWERS + "_")) {
+                    followers += count;
+                } else if (shard.getId().startsWith(FOLLOWING + "_")) {
+                    following += count;
+                }
+            }
+            listener.onCountsChanged(followers, following);
+        });
+    }
+
+    /**
+     * Copies a user's followers and following lists from before the edge
+     * collections into the collections. Edges are only written on the user's
+     * own side: the other users copy theirs when they log in. Each chunk of
+     * edges is written in a transaction that adds the number of edges it
+     * created to the user's counter, so follows accepted or ended while the
+     * lists are copied are still counted.
+     * @param user the user whose lists to copy
+     * @return a task that completes once every edge is written and counted
+     */
+    public Task<Void> mirrorFollowEdges(User user) {
+        String username = user.getUsername();
+        List<Task<Void>> transactions = new ArrayList<Task<Void>>();
+        transactions.addAll(writeEdges(username, FOLLOWERS, followerCollection(username), user.getFollowers()));
+        transactions.addAll(writeEdges(username, FOLLOWING, followingCollection(username), user.getFollowing()));
+        return Tasks.whenAll(transactions);
+    }
+
+    /**
+     * Writes an edge document for each user in a list that does not have one
+     * yet, and counts the new edges, in transactions of up to 200 edges.
+     * @param username the user the edges belong to
+     * @param counter FOLLOWERS or FOLLOWING
+     * @param edges the edge collection to write to
+     * @param usernames the users at the other end of the edges
+     * @return the transaction tasks
+     */
+    private List<Task<Void>> writeEdges(String username, String counter, CollectionReference edges, List<String> usernames) {
+        List<Task<Void>> transactions = new ArrayList<Task<Void>>();
+        if (usernames == null) {
+            return transactions;
+        }
+        for (int start = 0; start < usernames.size(); start += MIRROR_CHUNK) {
+            List<String> chunk = new ArrayList<String>(usernames.subList(start, Math.min(usernames.size(), start + MIRROR_CHUNK)));
+            transactions.add(database.runTransaction(transaction -> {
+                // all reads must happen before the writes
+                List<String> missing = new ArrayList<String>();
+                for (String other : chunk) {
+                    if (!transaction.get(edges.document(other)).exists()) {
+                        missing.add(other);
+                    }
+                }
+                for (String other : missing) {
+                    transaction.set(edges.document(other), edge(other));
+                }
+                if (!missing.isEmpty()) {
+                    incrementCounter(transaction, username, counter, missing.size());
+                }
+                return null;
+            }));
         }
+        return transactions;
+    }
+
+    /**
+     * Gets the collection holding the edges to a user's followers.
+     * @param username the followed user
+     * @return the followers collection
+     */
+    private CollectionReference followerCollection(String username) {
+        return userCollection.document(username).collection("Followers");
+    }
+
+    /**
+     * Gets the collection holding the edges to the users a user follows.
+     * @param username the following user
+     * @return the following collection
+     */
+    private CollectionReference followingCollection(String username) {
+        return userCollection.document(username).collection("Following");
+    }
+
+    /**
+     * Gets the collection holding the shards of a user's counters.
+     * @param username the user the counts belong to
+     * @return the counters collection
+     */
+    private CollectionReference counterCollection(String username) {
+        return userCollection.document(username).collection("Counters");
+    }
+
+    /**
+     * Creates the contents of an edge document.
+     * @param other the user at the other end of the edge
+     * @return the document fields
+     */
+    private static Map<String, Object> edge(String other) {
+        return Collections.singletonMap("username", other);
+    }
+
+    /**
+     * Adds to a random shard of one of a user's counters. The shard is
+     * created if it does not exist yet.
+     * @param transaction the transaction to write in
+     * @param username the user the count belongs to
+     * @param counter FOLLOWERS or FOLLOWING
+     * @param amount the amount to add, negative to subtract
+     */
+    private void incrementCounter(Transaction transaction, String username, String counter, long amount) {
+        DocumentReference shard = counterCollection(username).document(counter + "_" + random.nextInt(COUNTER_SHARDS));
+        transaction.set(shard, Collections.singletonMap("count", FieldValue.increment(amount)), SetOptions.merge());
+    }
+
+    /**
+     * Checks whether a follow request was sent, reading only the request.
+     * @param follower the user that may have sent a request
+     * @param followee the user the request would be sent to
+     * @return a task resolving to true if the request exists
+     */
+    public Task<Boolean> hasFollowRequest(String follower, String followee) {
+        return followRequestCollection(followee).document(follower).get()
+                .continueWith(task -> task.getResult().exists());
+    }
+
+    /**
+     * Listens for the follow requests sent to a user. The listener is called
+     * once with every request and then with each change.
+     * @param followee the user the requests were sent to
+     * @param listener called with each new state of the requests
+     * @return the registration, used to stop listening
+     */
+    public ListenerRegistration listenToFollowRequests(String followee, EventListener<QuerySnapshot> listener) {
+        return followRequestCollection(followee).addSnapshotListener(listener);
+    }
+
+    /**
+     * Moves follow requests from before the FollowRequests collection out of
+     * the user's document and into the collection.
+     * @param user the user whose requests to move
+     * @return the write task
+     */
+    public Task<Void> moveFollowRequests(User user) {
+        WriteBatch batch = database.batch();
+        for (FollowRequest request : user.getFollowRequests()) {
+            batch.set(followRequestCollection(user.getUsername()).document(request.getFollower()), request);
+        }
+        batch.update(userCollection.document(user.getUsername()), "followRequests", new ArrayList<FollowRequest>());
+        return batch.commit();
+    }
+
+    /**
+     * Finds a user's habit events within a distance of a location. One range
+     * query is run on the geohash field for each cell covering the circle,
+     * and the results are filtered by their exact distance.
+     * @param username the user whose events to search
+     * @param center the center of the search
+     * @param radiusMeters the search radius in meters
+     * @return a task resolving to the events in range
+     */
+    public Task<List<HabitEvent>> getHabitEventsNear(String username, LatLng center, double radiusMeters) {
+        List<Task<QuerySnapshot>> queries = new ArrayList<Task<QuerySnapshot>>();
+        for (String[] bound : GeoHash.queryBounds(center.latitude, center.longitude, radiusMeters)) {
+            Query query = eventCollection(username)
+                    .orderBy("geohash")
+                    .startAt(bound[0])
+                    .endAt(bound[1]);
+            queries.add(query.get());
+        }
+
+        return Tasks.whenAllSuccess(queries).continueWith(task -> {
+            List<HabitEvent> result = new ArrayList<HabitEvent>();
+            for (Object snapshot : task.getResult()) {
+                for (HabitEvent event : ((QuerySnapshot) snapshot).toObjects(HabitEvent.class)) {
+                    // the cells cover more than the circle, so check the real distance
+                    double distance = GeoHash.distance(center.latitude, center.longitude,
+                            event.getLat(), event.getLon());
+                    if (event.getHasLocation() && distance <= radiusMeters) {
+                        result.add(event);
+                    }
+                }
+            }
+            return result;
+        });
     }
 }
@@ -0,0 +1,330 @@
+/*
+ *  UserStore
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Session store for the logged in user. Every screen observes the same
+ * LiveData instead of reading the user from the database itself, so a
+ * change made on one screen is shown on all of them without extra reads.
+ *
+ * The user is published as snapshots which must not be changed. The latest
+ * snapshot is kept in an atomic reference, so it can be read from any thread
+ * without blocking. Changes are made with mutate(): mutations run one at a
+ * time on a single background thread, each on a copy of the latest
+ * snapshot, and the copy then becomes the new snapshot and is saved.
+ *
+ * Changes made elsewhere (e.g. another user accepting a follow request)
+ * arrive through a single Firestore snapshot listener on the user's document
+ * and go through the same thread, so they are never mixed with a mutation.
+ * Snapshots holding our own unacknowledged writes are skipped, since those
+ * were already published; the snapshot the server sends once the writes
+ * are acknowledged carries any change made elsewhere in the meantime.
+ *
+ * A session may start from the local cache, whose copy of the user can be
+ * days old. Until the server's copy arrives, mutations are only published,
+ * not saved, since saving the whole user from the old copy would undo
+ * changes made on other devices. They are applied again to the server's
+ * copy when it arrives, and saved then.
+ */
+public class UserStore {
+    private static final UserStore instance = new UserStore();
+    private final AtomicReference<User> current = new AtomicReference<User>();
+    private final MutableLiveData<User> user = new MutableLiveData<User>();
+    private final ExecutorService mutations = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private ListenerRegistration registration;
+    private volatile String session; // the username of the logged in user
+    private final AtomicLong saves = new AtomicLong(); // saves started by mutate()
+    // whether the server's copy of the user arrived, only used on the mutation thread
+    private boolean confirmed;
+    // mutations published before then, only used on the mutation thread
+    private final List<Mutation> unconfirmed = new ArrayList<Mutation>();
+    private TaskCompletionSource<User> confirmation = new TaskCompletionSource<User>();
+
+    /**
+     * A change to the logged in user.
+     */
+    public interface Mutation {
+        /**
+         * Applies the change.
+         * @param user a copy of the latest snapshot, to change in place
+         */
+        void apply(User user);
+    }
+
+    /**
+     * Private constructor
+     */
+    private UserStore() {}
+
+    /**
+     * Get an instance of the UserStore
+     * @return handle to UserStore
+     */
+    public static UserStore getInstance() { return instance; }
+
+    /**
+     * Gets the logged in user as LiveData, which is updated with a new
+     * snapshot whenever the user changes.
+     * @return the observable user
+     */
+    public LiveData<User> getUser() {
+        return user;
+    }
+
+    /**
+     * Gets the latest snapshot of the logged in user. Never blocks, and can
+     * be called from any thread. The snapshot must not be changed.
+     * @return the current user, or null if no one is logged in
+     */
+    public User get() {
+        return current.get();
+    }
+
+    /**
+     * Gets the session user as first read from the server, for work that must
+     * not act on an old cached copy (e.g. copying or cleaning up the user's
+     * data). Must be called from the main thread.
+     * @return a task resolving to the user once the server's copy arrived;
+     * it never completes if the session ends first
+     */
+    public Task<User> getConfirmedUser() {
+        return confirmation.getTask();
+    }
+
+    /**
+     * Checks whether a session is started, though its user may not be read
+     * yet.
+     * @return true if someone is logged in
+     */
+    public boolean isStarted() {
+        return session != null;
+    }
+
+    /**
+     * Starts a session for a user that just logged in, and starts listening
+     * for changes made to them elsewhere. Must be called from the main thread.
+     * @param loggedIn the user that logged in, as read from the database
+     */
+    public void start(User loggedIn) {
+        stop();
+        // the user was just read, so it is published without another read
+        current.set(loggedIn);
+        user.setValue(loggedIn);
+        listen(loggedIn.getUsername());
+    }
+
+    /**
+     * Starts a session for a user whose login was checked but who has not
+     * been read yet, or whose session was saved on an earlier launch. The
+     * user is published once their document arrives, from the local cache
+     * first if it holds the user, so until then get() returns null and the
+     * LiveData holds no user. Must be called from the main thread.
+     * @param username the user that logged in
+     */
+    public void start(String username) {
+        stop();
+        listen(username);
+    }
+
+    /**
+     * Listens for the session user's document, publishing each change made
+     * elsewhere.
+     * @param username the user the session is for
+     */
+    private void listen(String username) {
+        session = username;
+        TaskCompletionSource<User> sessionConfirmation = new TaskCompletionSource<User>();
+        confirmation = sessionConfirmation;
+        mutations.execute(() -> {
+            confirmed = false;
+            unconfirmed.clear();
+        });
+        registration = UserDatabase.getInstance().listenToUser(username, (snapshot, e) -> {
+            if (e != null || snapshot == null || !snapshot.exists()) {
+                // keep the last known state
+                return;
+            }
+            if (snapshot.getMetadata().hasPendingWrites() && current.get() != null) {
+                // our own mutation, which was already published. The first
+                // snapshot is always taken, since the cache may still hold
+                // writes from an earlier launch that have not reached the server
+                return;
+            }
+            long seenSaves = saves.get();
+            mutations.execute(() -> replace(username, snapshot, seenSaves, sessionConfirmation));
+        });
+    }
+
+    /**
+     * Ends the session, e.g. when logging out. Must be called from the main
+     * thread.
+     */
+    public void stop() {
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+        session = null;
+        current.set(null);
+        user.setValue(null);
+    }
+
+    /**
+     * Changes the logged in user. The mutation is applied later on the
+     * mutation thread to a copy of the latest snapshot, and the result is
+     * published and saved to the database. Can be called from any thread.
+     * @param mutation the change to make
+     */
+    public void mutate(Mutation mutation) {
+        mutations.execute(() -> {
+            User latest = current.get();
+            if (latest == null) {
+                // logged out before the mutation ran
+                return;
+            }
+            User next = latest.copy();
+            mutation.apply(next);
+            if (!confirmed) {
+                // saved once the server's copy arrives, see replace()
+                if (current.compareAndSet(latest, next)) {
+                    unconfirmed.add(mutation);
+                    publish(next);
+                }
+                return;
+            }
+            if (current.compareAndSet(latest, next)) {
+                publish(next);
+                UserDatabase.getInstance().saveUser(next);
+                // counted after the write is queued, so a snapshot counted
+                // before it is known to be older than the write
+                saves.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Changes the logged in user without saving the user, for changes that
+     * were already written to the database in place (e.g. with a batch).
+     * Otherwise works like mutate().
+     * @param mutation the change that was written
+     */
+    public void mutateLocally(Mutation mutation) {
+        mutations.execute(() -> {
+            User latest = current.get();
+            if (latest == null) {
+                return;
+            }
+            User next = latest.copy();
+            mutation.apply(next);
+            if (current.compareAndSet(latest, next)) {
+                publish(next);
+            }
+        });
+    }
+
+    /**
+     * Replaces the snapshot with a change made elsewhere. Runs on the
+     * mutation thread.
+     * @param username the user the session is for
+     * @param snapshot the changed user document
+     * @param seenSaves the number of saves started when the snapshot arrived
+     * @param sessionConfirmation completed with the first copy of the user
+     *                            read from the server
+     */
+    private void replace(String username, DocumentSnapshot snapshot, long seenSaves,
+                         TaskCompletionSource<User> sessionConfirmation) {
+        User latest = current.get();
+        if (!username.equals(session)) {
+            // the session ended or changed since the snapshot arrived
+            return;
+        }
+        if (latest != null && saves.get() != seenSaves) {
+            // a mutation was saved after this snapshot was taken, so it is
+            // older than the user published; the acknowledged snapshot of
+            // that save follows
+            return;
+        }
+        User next = snapshot.toObject(User.class);
+        if (next == null) {
+            return;
+        }
+        boolean fromServer = !snapshot.getMetadata().isFromCache()
+                && !snapshot.getMetadata().hasPendingWrites();
+        if (!confirmed) {
+            // mutations made on an old copy are applied to this one instead
+            for (Mutation mutation : unconfirmed) {
+                mutation.apply(next);
+            }
+            if (!current.compareAndSet(latest, next)) {
+                return;
+            }
+            publish(next);
+            if (fromServer) {
+                confirmed = true;
+                if (!unconfirmed.isEmpty()) {
+                    unconfirmed.clear();
+                    UserDatabase.getInstance().saveUser(next);
+                    saves.incrementAndGet();
+                }
+                sessionConfirmation.trySetResult(next);
+            }
+            return;
+        }
+        if (current.compareAndSet(latest, next)) {
+            publish(next);
+        }
+    }
+
+    /**
+     * Publishes a snapshot to the observing screens on the main thread,
+     * unless a newer one replaced it in the meantime.
+     * @param snapshot the snapshot to publish
+     */
+    private void publish(User snapshot) {
+        mainHandler.post(() -> {
+            if (current.get() == snapshot) {
+                user.setValue(snapshot);
+            }
+        });
+    }
+}
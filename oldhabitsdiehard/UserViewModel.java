@@ -0,0 +1,86 @@
+/*
+ *  UserViewModel
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.ViewModel;
+
+import com.google.android.gms.tasks.Task;
+
+/**
+ * ViewModel shared by the screens of MainActivity. It gives the screens the
+ * logged in user from the UserStore, so screens observe the user and are
+ * updated whenever it changes instead of reading it from the database.
+ */
+public class UserViewModel extends ViewModel {
+    private final UserStore store = UserStore.getInstance();
+    private final MediatorLiveData<User> user = new MediatorLiveData<User>();
+
+    /**
+     * Constructor
+     */
+    public UserViewModel() {
+        user.addSource(store.getUser(), changed -> {
+            // the user is cleared when logging out, while the screens are closing
+            if (changed != null) {
+                user.setValue(changed);
+            }
+        });
+    }
+
+    /**
+     * Gets the logged in user as LiveData, updated whenever it changes.
+     * @return the observable user
+     */
+    public LiveData<User> getUser() {
+        return user;
+    }
+
+    /**
+     * Gets the latest snapshot of the logged in user, which must not be
+     * changed.
+     * @return the current user
+     */
+    public User getCurrentUser() {
+        return store.get();
+    }
+
+    /**
+     * Gets the logged in user as first read from the server, see
+     * UserStore.getConfirmedUser().
+     * @return a task resolving to the server's copy of the user
+     */
+    public Task<User> getConfirmedUser() {
+        return store.getConfirmedUser();
+    }
+
+    /**
+     * Changes the logged in user and shows the change on every screen.
+     * @param mutation the change to make
+     */
+    public void mutate(UserStore.Mutation mutation) {
+        store.mutate(mutation);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ *  UsernameFilter
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A Bloom filter of usernames. It can say for certain that a username was
+ * not added, i.e. that the user did not exist when the filter was built,
+ * while a username that might have been added is still looked up.
+ *
+ * The filter is built by a backend job and stored as bytes in the database:
+ * bit i is bit (i & 7) of byte (i >>> 3), and the bits of a name are found
+ * as in index(), so the job must use the same sizes and hashes.
+ */
+public class UsernameFilter {
+    // constants, 128k bits and 7 hashes keep false positives near 1% up to
+    // about 13,000 users
+    public static final int BITS = 1 << 17;
+    public static final int HASHES = 7;
+
+    private final byte[] bits;
+
+    /**
+     * Creates a filter from stored bytes.
+     * @param bits the stored bytes
+     * @throws IllegalArgumentException if the bytes are not of a filter of
+     * this size
+     */
+    public UsernameFilter(byte[] bits) throws IllegalArgumentException {
+        if (bits.length != BITS / 8) {
+            throw new IllegalArgumentException();
+        }
+        this.bits = bits.clone();
+    }
+
+    /**
+     * Adds a username.
+     * @param username the username
+     */
+    public void add(String username) {
+        long hash = hash(username);
+        for (int i = 0; i < HASHES; i++) {
+            int bit = index(hash, i);
+            bits[bit >>> 3] |= (byte) (1 << (bit & 7));
+        }
+    }
+
+    /**
+     * Checks whether a username might have been added.
+     * @param username the username
+     * @return false if it was certainly never added
+     */
+    public boolean mightContain(String username) {
+        long hash = hash(username);
+        for (int i = 0; i < HASHES; i++) {
+            int bit = index(hash, i);
+            if ((bits[bit >>> 3] & (1 << (bit & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hashes a username with 64-bit FNV-1a.
+     * @param username the username
+     * @return the hash
+     */
+    private static long hash(String username) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : username.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Gets the bit for one of the hashes of a username, deriving each hash
+     * from the two halves of the 64-bit hash.
+     * @param hash the username's hash
+     * @param i which of the hashes to get
+     * @return the index of the bit
+     */
+    private static int index(long hash, int i) {
+        int first = (int) hash;
+        int second = (int) (hash >>> 32);
+        return ((first + i * second) & Integer.MAX_VALUE) % BITS;
+    }
+}
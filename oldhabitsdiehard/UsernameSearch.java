@@ -0,0 +1,141 @@
+/*
+ *  UsernameSearch
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Suggests usernames while a search is typed. Names seen recently are
+ * suggested at once from a UsernameTrie, and once typing pauses the
+ * database is asked for the names starting with what was typed. A query
+ * that is still running when the text changes again is cancelled, so only
+ * the latest text's results are ever shown.
+ * All methods must be called on the main thread.
+ */
+public class UsernameSearch {
+    // constants
+    public static final int MAX_SUGGESTIONS = 8;
+    private static final long DEBOUNCE_MILLIS = 300;
+    private static final int SEEN_CAPACITY = 500;
+
+    // shared by every search screen, only used on the main thread
+    private static final UsernameTrie seen = new UsernameTrie(SEEN_CAPACITY);
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Listener listener;
+    private Runnable pendingQuery;
+    private ListenerRegistration runningQuery;
+
+    /**
+     * Callback interface for suggestions.
+     */
+    public interface Listener {
+        /**
+         * Called with the suggestions for the latest text, first from the
+         * names seen recently and then from the database.
+         * @param query the text the suggestions are for
+         * @param usernames the suggested usernames
+         */
+        void onSuggestions(String query, List<String> usernames);
+    }
+
+    /**
+     * Constructor
+     * @param listener receives the suggestions
+     */
+    public UsernameSearch(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Remembers a username seen elsewhere, e.g. a user that was opened, so
+     * it is suggested instantly next time.
+     * @param username the username
+     */
+    public static void remember(String username) {
+        seen.add(username);
+    }
+
+    /**
+     * Suggests usernames for new search text.
+     * @param query the text in the search box
+     */
+    public void onQueryChanged(String query) {
+        cancel();
+        String prefix = query.trim();
+        if (prefix.isEmpty()) {
+            listener.onSuggestions(query, new ArrayList<String>());
+            return;
+        }
+
+        // names seen before are suggested without waiting
+        listener.onSuggestions(query, seen.startingWith(prefix, MAX_SUGGESTIONS));
+
+        // the database is only asked once typing pauses
+        pendingQuery = () -> {
+            pendingQuery = null;
+            runningQuery = UserDatabase.getInstance().findUsernames(prefix, MAX_SUGGESTIONS, (snapshot, e) -> {
+                if (e != null || snapshot == null) {
+                    return;
+                }
+                List<String> usernames = new ArrayList<String>();
+                for (DocumentSnapshot document : snapshot.getDocuments()) {
+                    String username = document.getString("username");
+                    if (username != null) {
+                        usernames.add(username);
+                        seen.add(username);
+                    }
+                }
+                listener.onSuggestions(query, usernames);
+                if (!snapshot.getMetadata().isFromCache()) {
+                    // the server answered, later changes are not needed
+                    cancel();
+                }
+            });
+        };
+        handler.postDelayed(pendingQuery, DEBOUNCE_MILLIS);
+    }
+
+    /**
+     * Cancels the query that is waiting or running, e.g. when the search
+     * screen is closed.
+     */
+    public void cancel() {
+        if (pendingQuery != null) {
+            handler.removeCallbacks(pendingQuery);
+            pendingQuery = null;
+        }
+        if (runningQuery != null) {
+            runningQuery.remove();
+            runningQuery = null;
+        }
+    }
+}
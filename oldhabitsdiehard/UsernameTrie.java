@@ -0,0 +1,158 @@
+/*
+ *  UsernameTrie
+ *
+ *  Version 1.0
+ *
+ *  October 19, 2026
+ *
+ *  Copyright 2021 Rowan Tilroe, Claire Martin, Filippo Ciandy,
+ *  Gurbani Baweja, Chanpreet Singh, and Paige Lekach
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.example.oldhabitsdiehard;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A prefix tree of recently seen usernames, for instant search suggestions
+ * before the database answers. Names are matched without case, and only the
+ * most recently seen names are kept, the oldest are forgotten first.
+ * Not thread safe, use it from the main thread.
+ */
+public class UsernameTrie {
+    private final int capacity;
+    private final Node root = new Node();
+    // every name in the trie by its key, oldest first
+    private final LinkedHashMap<String, String> recent = new LinkedHashMap<String, String>(16, 0.75f, true);
+
+    /**
+     * A node of the tree, for one character of a key.
+     */
+    private static class Node {
+        // sorted, so suggestions come out in alphabetical order
+        private final TreeMap<Character, Node> children = new TreeMap<Character, Node>();
+        private String username; // set if a name ends here
+    }
+
+    /**
+     * Constructor
+     * @param capacity the most names to keep
+     */
+    public UsernameTrie(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Normalizes a username or prefix for matching.
+     * @param username the username or prefix
+     * @return the key to match on
+     */
+    public static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Adds a username, or marks it as seen again if it is already known.
+     * @param username the username
+     */
+    public void add(String username) {
+        String key = key(username);
+        if (recent.put(key, username) == null && recent.size() > capacity) {
+            // forget the name seen longest ago
+            Iterator<Map.Entry<String, String>> oldest = recent.entrySet().iterator();
+            String oldestKey = oldest.next().getKey();
+            oldest.remove();
+            remove(oldestKey);
+        }
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null) {
+                child = new Node();
+                node.children.put(key.charAt(i), child);
+            }
+            node = child;
+        }
+        node.username = username;
+    }
+
+    /**
+     * Gets known usernames starting with a prefix, in alphabetical order.
+     * @param prefix the prefix, matched without case
+     * @param limit the most names to return
+     * @return the matching names
+     */
+    public List<String> startingWith(String prefix, int limit) {
+        List<String> result = new ArrayList<String>();
+        String key = key(prefix);
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.children.get(key.charAt(i));
+        }
+        if (node != null) {
+            collect(node, result, limit);
+        }
+        return result;
+    }
+
+    /**
+     * Adds the names under a node to a list, depth first.
+     * @param node the node to start from
+     * @param result the list to add to
+     * @param limit the most names the list may hold
+     */
+    private static void collect(Node node, List<String> result, int limit) {
+        if (result.size() >= limit) {
+            return;
+        }
+        if (node.username != null) {
+            result.add(node.username);
+        }
+        for (Node child : node.children.values()) {
+            collect(child, result, limit);
+        }
+    }
+
+    /**
+     * Removes a name's key, and the nodes that no other name needs.
+     * @param key the key of the name
+     */
+    private void remove(String key) {
+        // the deepest node on the path that must be kept, and its next child
+        Node keep = root;
+        char cut = key.isEmpty() ? 0 : key.charAt(0);
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            if (node.username != null || node.children.size() > 1) {
+                keep = node;
+                cut = key.charAt(i);
+            }
+            node = node.children.get(key.charAt(i));
+            if (node == null) {
+                return;
+            }
+        }
+        node.username = null;
+        if (node.children.isEmpty() && !key.isEmpty()) {
+            keep.children.remove(cut);
+        }
+    }
+}